@@ -2,8 +2,12 @@ package edu.cit.lgng.backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@PropertySource("classpath:defaults.properties")
 public class BackendApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,79 @@
+package edu.cit.lgng.backend.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Caffeine caches for reference data that changes a few times a day.
+ * Each cache has its own Caffeine spec (size / TTL), overridable via {@code cache.<name>.spec},
+ * and records hit/miss statistics. The listings are cached whole, so sizes stay small.
+ *
+ * Caches are transaction-aware: a put or evict made inside a transaction is applied after it
+ * commits, so a concurrent read cannot re-cache the old row between the evict and the commit.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String ROUTES = "routes";
+    public static final String BUS_TYPES = "busTypes";
+    public static final String BUSES = "buses";
+    public static final String SCHEDULES = "schedules";
+    public static final String AUTH_PRINCIPALS = "authPrincipals";
+    public static final String CONFIRMED_INTENTS = "confirmedIntents";
+    public static final String TICKET_MANIFESTS = "ticketManifests";
+
+    @Value("${cache.routes.spec:maximumSize=10,expireAfterWrite=10m}")
+    private String routesSpec;
+
+    @Value("${cache.bus-types.spec:maximumSize=10,expireAfterWrite=30m}")
+    private String busTypesSpec;
+
+    @Value("${cache.buses.spec:maximumSize=10,expireAfterWrite=10m}")
+    private String busesSpec;
+
+    // Listings carry availableSeats, so keep this one short
+    @Value("${cache.schedules.spec:maximumSize=10,expireAfterWrite=30s}")
+    private String schedulesSpec;
+
+    // Bounds how long a deleted user or role change can go unnoticed by existing tokens
+    @Value("${cache.auth-principals.spec:maximumSize=10000,expireAfterWrite=60s}")
+    private String authPrincipalsSpec;
+
+    // PayMongo intent ID -> booking ID of recent confirmations; the payments table stays the source of truth
+    @Value("${cache.confirmed-intents.spec:maximumSize=10000,expireAfterWrite=30m}")
+    private String confirmedIntentsSpec;
+
+    // Boarding manifests per schedule; bounds how late a new booking or cancellation shows up on download
+    @Value("${cache.ticket-manifests.spec:maximumSize=200,expireAfterWrite=60s}")
+    private String ticketManifestsSpec;
+
+    @Bean
+    public CacheManager cacheManager() {
+        SimpleCacheManager manager = new SimpleCacheManager();
+        manager.setCaches(List.of(
+                build(ROUTES, routesSpec),
+                build(BUS_TYPES, busTypesSpec),
+                build(BUSES, busesSpec),
+                build(SCHEDULES, schedulesSpec),
+                build(AUTH_PRINCIPALS, authPrincipalsSpec),
+                build(CONFIRMED_INTENTS, confirmedIntentsSpec),
+                build(TICKET_MANIFESTS, ticketManifestsSpec)
+        ));
+        manager.initializeCaches();
+        return new TransactionAwareCacheManagerProxy(manager);
+    }
+
+    private CaffeineCache build(String name, String spec) {
+        return new CaffeineCache(name, Caffeine.from(spec).recordStats().build());
+    }
+}
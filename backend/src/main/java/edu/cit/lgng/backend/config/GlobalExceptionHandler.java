@@ -1,5 +1,7 @@
 package edu.cit.lgng.backend.config;
 
+import edu.cit.lgng.backend.exception.SeatConflictException;
+import edu.cit.lgng.backend.exception.SeatsNoLongerHeldException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -8,6 +10,16 @@ import java.util.Map;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
+    @ExceptionHandler(SeatConflictException.class)
+    public ResponseEntity<Map<String, String>> handleSeatConflict(SeatConflictException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler(SeatsNoLongerHeldException.class)
+    public ResponseEntity<Map<String, String>> handleSeatsNoLongerHeld(SeatsNoLongerHeldException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, String>> handleRuntimeException(RuntimeException e) {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("error", e.getMessage()));
@@ -1,27 +1,35 @@
 package edu.cit.lgng.backend.config;
 
-import io.jsonwebtoken.ExpiredJwtException;
+import edu.cit.lgng.backend.service.AuthPrincipalService;
+import edu.cit.lgng.backend.service.AuthPrincipalService.AuthPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
-import edu.cit.lgng.backend.config.JwtUtil;
+
 import java.io.IOException;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
 public class JwtRequestFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final AuthPrincipalService authPrincipalService;
+    private final MeterRegistry meterRegistry;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
@@ -29,29 +37,54 @@ public class JwtRequestFilter extends OncePerRequestFilter {
 
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
-
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String jwt = authorizationHeader.substring(7);
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String outcome = "rejected";
             try {
-                username = jwtUtil.extractUsername(jwt);
-            } catch (ExpiredJwtException e) {
-                // JWT has expired
+                // Signature and expiry are checked once here; no second parse to validate
+                Claims claims = jwtUtil.parseClaims(jwt);
+                if (authenticate(claims, request)) {
+                    outcome = "authenticated";
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                // Invalid or expired JWT: continue unauthenticated
+                outcome = "invalid";
+            } finally {
+                sample.stop(Timer.builder("auth.jwt.filter")
+                        .description("JWT verification and principal lookup")
+                        .tag("outcome", outcome)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
             }
         }
+        chain.doFilter(request, response);
+    }
+
+    private boolean authenticate(Claims claims, HttpServletRequest request) {
+        String email = claims.getSubject();
+        if (email == null) {
+            return false;
+        }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+        // Cached for a short TTL, so deleted accounts and role changes still take effect
+        AuthPrincipal principal = authPrincipalService.findActive(email).orElse(null);
+        if (principal == null) {
+            return false;
+        }
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                usernamePasswordAuthenticationToken
-                        .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
-            }
+        String role = claims.get("role", String.class);
+        if (role == null || !role.equals(principal.role())) {
+            // Role changed since the token was issued; the current role wins
+            role = principal.role();
         }
-        chain.doFilter(request, response);
+
+        UserDetails userDetails = new User(email, "", List.of(new SimpleGrantedAuthority(role)));
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities());
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        return true;
     }
-}
\ No newline at end of file
+}
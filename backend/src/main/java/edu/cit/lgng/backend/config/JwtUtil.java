@@ -1,7 +1,11 @@
 package edu.cit.lgng.backend.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import edu.cit.lgng.backend.model.User;
+import edu.cit.lgng.backend.util.Hashing;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -11,6 +15,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -19,11 +24,22 @@ import java.util.function.Function;
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    // Key and parser are immutable and thread-safe, so they are built once
+    private final Key signingKey;
+    private final JwtParser parser;
+    private final long expiration;
 
-    @Value("${jwt.expiration}")
-    private long expiration;
+    // Verified claims keyed by a SHA-256 of the token, so raw tokens are not kept in memory
+    private final Cache<String, Claims> claimsCache;
+
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration}") long expiration,
+                   @Value("${jwt.claims-cache-size:10000}") long claimsCacheSize) {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.expiration = expiration;
+        this.claimsCache = Caffeine.newBuilder().maximumSize(claimsCacheSize).build();
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -38,12 +54,32 @@ public class JwtUtil {
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Verifies the signature and expiry and returns the claims.
+     * Throws a {@link io.jsonwebtoken.JwtException} for invalid or expired tokens.
+     */
+    public Claims parseClaims(String token) {
+        return extractAllClaims(token);
+    }
+
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(token).getBody();
+        String key = hash(token);
+        Claims cached = claimsCache.getIfPresent(key);
+        if (cached != null && !isExpired(cached)) {
+            return cached;
+        }
+        if (cached != null) {
+            claimsCache.invalidate(key);
+        }
+        // Throws ExpiredJwtException for tokens that just expired
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        claimsCache.put(key, claims);
+        return claims;
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private static boolean isExpired(Claims claims) {
+        Date exp = claims.getExpiration();
+        return exp != null && exp.before(new Date());
     }
 
     public String generateToken(User user) {
@@ -58,17 +94,16 @@ public class JwtUtil {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        final Claims claims = extractAllClaims(token);
+        return claims.getSubject().equals(userDetails.getUsername()) && !isExpired(claims);
     }
 
-    private Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static String hash(String token) {
+        return Base64.getEncoder().encodeToString(Hashing.sha256(token));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,117 @@
+package edu.cit.lgng.backend.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Wraps every PayMongo call with a circuit breaker, per-endpoint latency metrics and,
+ * for idempotent GETs only, retries with full-jitter exponential backoff.
+ * POSTs are never retried here since PayMongo would create a second intent.
+ */
+@Slf4j
+public class PayMongoClientInterceptor implements ClientHttpRequestInterceptor {
+
+    // pi_xxx, pay_xxx, pm_xxx... become {id} so the endpoint tag stays low-cardinality
+    private static final Pattern RESOURCE_ID = Pattern.compile("/(?:pi|pay|pm|src|evt|hook)_[^/]+");
+
+    private final PayMongoCircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+
+    public PayMongoClientInterceptor(PayMongoCircuitBreaker circuitBreaker, MeterRegistry meterRegistry,
+                                     int maxAttempts, Duration baseDelay, Duration maxDelay) {
+        this.circuitBreaker = circuitBreaker;
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMs = baseDelay.toMillis();
+        this.maxDelayMs = maxDelay.toMillis();
+        Gauge.builder("paymongo.client.circuit.open", circuitBreaker, cb -> cb.state() == PayMongoCircuitBreaker.State.CLOSED ? 0 : 1)
+                .description("1 while the PayMongo circuit breaker is open or half-open")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String endpoint = RESOURCE_ID.matcher(request.getURI().getPath()).replaceAll("/{id}");
+        int attempts = HttpMethod.GET.equals(request.getMethod()) ? maxAttempts : 1;
+
+        for (int attempt = 1; ; attempt++) {
+            if (!circuitBreaker.tryAcquire()) {
+                record(request, endpoint, "CIRCUIT_OPEN", 0);
+                throw new IOException("PayMongo circuit breaker is open");
+            }
+
+            long start = System.nanoTime();
+            ClientHttpResponse response;
+            try {
+                response = execution.execute(request, body);
+            } catch (IOException e) {
+                circuitBreaker.recordFailure();
+                record(request, endpoint, "IO_ERROR", System.nanoTime() - start);
+                if (attempt >= attempts) {
+                    throw e;
+                }
+                log.warn("PayMongo {} {} failed (attempt {}/{}): {}", request.getMethod(), endpoint, attempt, attempts, e.getMessage());
+                backoff(attempt);
+                continue;
+            } catch (RuntimeException e) {
+                circuitBreaker.recordFailure();
+                record(request, endpoint, "ERROR", System.nanoTime() - start);
+                throw e;
+            }
+
+            int status = response.getStatusCode().value();
+            record(request, endpoint, String.valueOf(status), System.nanoTime() - start);
+            if (status >= 500) {
+                circuitBreaker.recordFailure();
+            } else {
+                // 4xx means PayMongo is up and answering
+                circuitBreaker.recordSuccess();
+            }
+
+            boolean retryable = status >= 500 || status == 429;
+            if (!retryable || attempt >= attempts) {
+                return response;
+            }
+            log.warn("PayMongo {} {} returned {} (attempt {}/{})", request.getMethod(), endpoint, status, attempt, attempts);
+            response.close();
+            backoff(attempt);
+        }
+    }
+
+    private void record(HttpRequest request, String endpoint, String status, long nanos) {
+        Timer.builder("paymongo.client.requests")
+                .description("PayMongo HTTP calls, one sample per attempt")
+                .tag("method", request.getMethod().name())
+                .tag("endpoint", endpoint)
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(Duration.ofNanos(nanos));
+    }
+
+    private void backoff(int attempt) throws IOException {
+        long cap = Math.min(maxDelayMs, baseDelayMs << Math.min(attempt - 1, 16));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while retrying PayMongo call", e);
+        }
+    }
+}
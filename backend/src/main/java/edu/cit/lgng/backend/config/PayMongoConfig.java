@@ -1,10 +1,23 @@
 package edu.cit.lgng.backend.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 @Configuration
 public class PayMongoConfig {
 
@@ -17,9 +30,71 @@ public class PayMongoConfig {
     @Value("${paymongo.base-url:https://api.paymongo.com/v1}")
     private String baseUrl;
 
+    @Value("${paymongo.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${paymongo.http.connect-timeout:PT2S}")
+    private Duration connectTimeout;
+
+    // How long a caller waits for a free pooled connection before failing
+    @Value("${paymongo.http.pool-timeout:PT1S}")
+    private Duration poolTimeout;
+
+    @Value("${paymongo.http.read-timeout:PT10S}")
+    private Duration readTimeout;
+
+    @Value("${paymongo.http.keep-alive:PT30S}")
+    private Duration keepAlive;
+
+    @Value("${paymongo.retry.max-attempts:3}")
+    private int retryMaxAttempts;
+
+    @Value("${paymongo.retry.base-delay:PT0.1S}")
+    private Duration retryBaseDelay;
+
+    @Value("${paymongo.retry.max-delay:PT1S}")
+    private Duration retryMaxDelay;
+
+    @Value("${paymongo.circuit.failure-threshold:5}")
+    private int circuitFailureThreshold;
+
+    @Value("${paymongo.circuit.open-duration:PT30S}")
+    private Duration circuitOpenDuration;
+
+    /**
+     * HTTP client used only for PayMongo: pooled keep-alive connections with bounded
+     * connect, pool-wait and read timeouts, wrapped by {@link PayMongoClientInterceptor}.
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(5))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "paymongo").bindTo(meterRegistry);
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(poolTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> TimeValue.of(keepAlive))
+                .evictIdleConnections(TimeValue.of(keepAlive))
+                // Retries are done by the interceptor, and only for GETs
+                .disableAutomaticRetries()
+                .build();
+
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        restTemplate.getInterceptors().add(new PayMongoClientInterceptor(
+                new PayMongoCircuitBreaker(circuitFailureThreshold, circuitOpenDuration),
+                meterRegistry, retryMaxAttempts, retryBaseDelay, retryMaxDelay));
+        return restTemplate;
     }
 
     public String getSecretKey() {
@@ -37,4 +112,4 @@ public class PayMongoConfig {
     public String getEncodedSecretKey() {
         return java.util.Base64.getEncoder().encodeToString((secretKey + ":").getBytes());
     }
-}
\ No newline at end of file
+}
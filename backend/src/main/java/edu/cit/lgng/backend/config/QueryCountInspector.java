@@ -0,0 +1,36 @@
+package edu.cit.lgng.backend.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread while a request is being counted.
+ * The SQL itself is passed through unchanged.
+ */
+@Component
+public class QueryCountInspector implements StatementInspector {
+
+    private final ThreadLocal<int[]> counter = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = counter.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    public void start() {
+        counter.set(new int[1]);
+    }
+
+    /**
+     * Returns the number of statements since {@link #start()} and stops counting.
+     */
+    public int stop() {
+        int[] count = counter.get();
+        counter.remove();
+        return count != null ? count[0] : 0;
+    }
+}
@@ -1,28 +1,67 @@
 package edu.cit.lgng.backend.config;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.security.web.util.matcher.RequestMatcher;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
 @Configuration
 @EnableMethodSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    private static final String METRICS_SCRAPER = "METRICS_SCRAPER";
+
     private final OAuth2LoginSuccessHandler oauth2LoginSuccessHandler;
     private final JwtRequestFilter jwtRequestFilter;
 
+    /**
+     * Actuator endpoints. Health stays open for load balancer checks; everything else, Prometheus
+     * included, needs an admin JWT or the scrape credentials over HTTP basic
+     * (metrics.scrape.username / metrics.scrape.password). With no password set, only admins get in.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http,
+                                                   @Value("${metrics.scrape.username:prometheus}") String scrapeUsername,
+                                                   @Value("${metrics.scrape.password:}") String scrapePassword) throws Exception {
+        http
+                .securityMatcher("/actuator/**")
+                .csrf(csrf -> csrf.disable())
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        .anyRequest().hasAnyAuthority(METRICS_SCRAPER, "ADMIN", "SUPER_ADMIN")
+                )
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                // Basic credentials are only checked against the scrape account, never against user passwords
+                .authenticationManager(scrapeAuthentication(scrapeUsername, scrapePassword))
+                .httpBasic(basic -> basic.realmName("metrics"))
+                .addFilterBefore(jwtRequestFilter, BasicAuthenticationFilter.class);
+
+        return http.build();
+    }
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
 
@@ -50,6 +89,9 @@ public class SecurityConfig {
                         // Paymongo webhook
                         .requestMatchers("/api/paymongo/webhook").permitAll()
 
+                        // Completion of long-poll requests; the original request was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // 2. Allow access to unauthenticated resources (if any)
                         // .requestMatchers("/api/public/**").permitAll()
 
@@ -71,6 +113,18 @@ public class SecurityConfig {
         return http.build();
     }
 
+    private static AuthenticationManager scrapeAuthentication(String username, String password) {
+        byte[] expected = password.getBytes(StandardCharsets.UTF_8);
+        return authentication -> {
+            byte[] given = String.valueOf(authentication.getCredentials()).getBytes(StandardCharsets.UTF_8);
+            if (expected.length == 0 || !username.equals(authentication.getName()) || !MessageDigest.isEqual(expected, given)) {
+                throw new BadCredentialsException("Invalid scrape credentials");
+            }
+            return UsernamePasswordAuthenticationToken.authenticated(
+                    username, null, List.of(new SimpleGrantedAuthority(METRICS_SCRAPER)));
+        };
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration authenticationConfiguration) throws Exception {
         return authenticationConfiguration.getAuthenticationManager();
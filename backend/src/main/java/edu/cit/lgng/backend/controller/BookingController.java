@@ -2,24 +2,62 @@ package edu.cit.lgng.backend.controller;
 
 import edu.cit.lgng.backend.dto.BookingRequestDto;
 import edu.cit.lgng.backend.dto.PaymentRequestDto;
+import edu.cit.lgng.backend.exception.SeatConflictException;
+import edu.cit.lgng.backend.exception.SeatsNoLongerHeldException;
 import edu.cit.lgng.backend.model.Booking;
+import edu.cit.lgng.backend.repository.BookingRepository;
+import edu.cit.lgng.backend.service.AuthPrincipalService;
+import edu.cit.lgng.backend.service.BookingExportService;
+import edu.cit.lgng.backend.service.BookingHoldService;
 import edu.cit.lgng.backend.service.BookingService;
+import edu.cit.lgng.backend.service.QrCodeRenderer;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/bookings")
 @RequiredArgsConstructor
 public class BookingController {
+    private static final Set<String> ADMIN_ROLES = Set.of("ADMIN", "SUPER_ADMIN");
+
     private final BookingService bookingService;
+    private final AuthPrincipalService authPrincipalService;
+    private final BookingHoldService holdService;
+    private final BookingExportService exportService;
+    private final QrCodeRenderer qrCodeRenderer;
+
+    @Value("${booking.export.timeout:PT10M}")
+    private Duration exportTimeout;
 
     @PostMapping
     public ResponseEntity<?> createBooking(@RequestBody BookingRequestDto req) {
         try {
             Booking b = bookingService.createBooking(req.getUserId(), req.getScheduleId(), req.getAmount(), req.getSeatNumbers());
             return ResponseEntity.ok(b);
+        } catch (SeatConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "error", e.getMessage(),
+                    "seats", e.getSeatNumbers()
+            ));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -30,13 +68,18 @@ public class BookingController {
         try {
             Booking b = bookingService.confirmBooking(id, req.getProviderRef(), req.getAmount());
             return ResponseEntity.ok(b);
+        } catch (SeatsNoLongerHeldException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<?> getUserBookings(@PathVariable Long userId) {
+    public ResponseEntity<?> getUserBookings(@PathVariable Long userId, Authentication auth) {
+        if (!isSelfOrAdmin(userId, auth)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Not your bookings"));
+        }
         try {
             List<Booking> bookings = bookingService.getUserBookings(userId);
             return ResponseEntity.ok(bookings);
@@ -45,10 +88,92 @@ public class BookingController {
         }
     }
 
+    /**
+     * A user's booking history, newest first, as lightweight summaries without QR payloads.
+     * Pass the returned {@code nextCursor} as {@code after} to get the next page.
+     */
+    @GetMapping("/user/{userId}/history")
+    public ResponseEntity<?> getUserBookingHistory(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size,
+            Authentication auth) {
+        if (!isSelfOrAdmin(userId, auth)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Not your bookings"));
+        }
+        try {
+            return ResponseEntity.ok(bookingService.getUserBookingHistory(userId, after, size));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * The QR payload of one booking, fetched when the ticket is opened.
+     * Also returns the URL of the rendered image, which changes whenever the payload does.
+     * The payload is a boarding pass, so only the booking's owner and admins get it; anyone else gets a 404.
+     */
+    @GetMapping("/{id}/qr")
+    public ResponseEntity<?> getBookingQr(@PathVariable Long id, Authentication auth) {
+        BookingRepository.BookingTicket ticket = bookingService.findTicket(id)
+                .filter(t -> isSelfOrAdmin(t.getUserId(), auth))
+                .orElse(null);
+        if (ticket == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Booking not found"));
+        }
+        String qrCodeText = ticket.getQrCodeText();
+        Map<String, Object> body = new HashMap<>();
+        body.put("bookingId", id);
+        body.put("qrCodeText", qrCodeText);
+        if (qrCodeText != null) {
+            body.put("imageUrl", "/api/bookings/" + id + "/qr/" + QrCodeRenderer.contentHash(qrCodeText));
+        }
+        return ResponseEntity.ok(body);
+    }
+
+    /**
+     * The booking's QR code rendered server-side as PNG or SVG, {@code size} pixels per side.
+     *
+     * The URL carries the payload hash, so its content never changes: responses are marked
+     * immutable, and a revalidation with a matching ETag is answered without rendering.
+     * A stale hash (the payload was reissued) gets a 404; fetch {@code /qr} again for the new URL.
+     * Like {@code /qr}, only the owner and admins can read it.
+     */
+    @GetMapping("/{id}/qr/{hash}")
+    public ResponseEntity<byte[]> getBookingQrImage(
+            @PathVariable Long id,
+            @PathVariable String hash,
+            @RequestParam(defaultValue = "png") String format,
+            @RequestParam(defaultValue = "256") int size,
+            WebRequest request,
+            Authentication auth) {
+        QrCodeRenderer.Format imageFormat = QrCodeRenderer.Format.from(format);
+        int pixels = qrCodeRenderer.clampSize(size);
+
+        String qrCodeText = bookingService.findTicket(id)
+                .filter(t -> isSelfOrAdmin(t.getUserId(), auth))
+                .map(BookingRepository.BookingTicket::getQrCodeText)
+                .orElse(null);
+        if (qrCodeText == null || !QrCodeRenderer.contentHash(qrCodeText).equals(hash)) {
+            return ResponseEntity.notFound().build();
+        }
+
+        String etag = "\"" + hash + "-" + imageFormat + "-" + pixels + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(imageFormat.mediaType()))
+                .eTag(etag)
+                .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable())
+                .body(qrCodeRenderer.render(qrCodeText, imageFormat, pixels));
+    }
+
     /**
      * Returns all bookings in the system.
      * This is primarily used by the admin dashboard for reporting.
      */
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'SUPER_ADMIN')")
     @GetMapping
     public ResponseEntity<?> getAllBookings() {
         try {
@@ -58,4 +183,47 @@ public class BookingController {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
+
+    /**
+     * Streams all bookings for the admin dashboard as NDJSON (default) or CSV.
+     * Unlike {@link #getAllBookings()}, rows are written as they are read, without QR text.
+     * Runs as an async task with its own timeout ({@code booking.export.timeout}), so long
+     * exports do not need a long async timeout for every other endpoint.
+     */
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'SUPER_ADMIN')")
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportBookings(@RequestParam(defaultValue = "ndjson") String format,
+                                             HttpServletResponse response) {
+        BookingExportService.Format exportFormat = BookingExportService.Format.from(format);
+        boolean csv = exportFormat == BookingExportService.Format.CSV;
+        response.setContentType(csv ? "text/csv" : MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bookings." + (csv ? "csv" : "ndjson") + "\"");
+        return new WebAsyncTask<>(exportTimeout.toMillis(), () -> {
+            exportService.export(exportFormat, response.getOutputStream());
+            return null;
+        });
+    }
+
+    /**
+     * Hold expiry statistics: active holds and how many expired holds were released.
+     */
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'SUPER_ADMIN')")
+    @GetMapping("/holds")
+    public ResponseEntity<?> getHoldStats() {
+        return ResponseEntity.ok(holdService.stats());
+    }
+
+    /**
+     * True if the caller is the given user or an admin.
+     */
+    private boolean isSelfOrAdmin(Long userId, Authentication auth) {
+        if (auth == null) {
+            return false;
+        }
+        boolean admin = auth.getAuthorities().stream().map(GrantedAuthority::getAuthority).anyMatch(ADMIN_ROLES::contains);
+        return admin || authPrincipalService.findActive(auth.getName())
+                .map(AuthPrincipalService.AuthPrincipal::id)
+                .filter(id -> id.equals(userId))
+                .isPresent();
+    }
 }
@@ -0,0 +1,47 @@
+package edu.cit.lgng.backend.controller;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cache")
+@RequiredArgsConstructor
+public class CacheController {
+    private final CacheManager cacheManager;
+
+    /**
+     * Hit/miss statistics per cache, for tuning sizes and TTLs.
+     */
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'SUPER_ADMIN')")
+    @GetMapping("/stats")
+    public ResponseEntity<?> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache target = cacheManager.getCache(name);
+            if (target instanceof TransactionAwareCacheDecorator decorator) {
+                target = decorator.getTargetCache();
+            }
+            if (target instanceof CaffeineCache cache) {
+                CacheStats stats = cache.getNativeCache().stats();
+                result.put(name, Map.of(
+                        "size", cache.getNativeCache().estimatedSize(),
+                        "hits", stats.hitCount(),
+                        "misses", stats.missCount(),
+                        "hitRate", stats.hitRate(),
+                        "evictions", stats.evictionCount()
+                ));
+            }
+        }
+        return ResponseEntity.ok(result);
+    }
+}
@@ -1,12 +1,19 @@
 package edu.cit.lgng.backend.controller;
 
 import edu.cit.lgng.backend.dto.PayMongoDto.*;
+import edu.cit.lgng.backend.exception.SeatsNoLongerHeldException;
+import edu.cit.lgng.backend.exception.WebhookPayloadTooLargeException;
 import edu.cit.lgng.backend.model.Booking;
 import edu.cit.lgng.backend.service.PayMongoService;
+import edu.cit.lgng.backend.service.PayMongoWebhookInbox;
+import edu.cit.lgng.backend.service.PaymentStatusTracker;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -18,6 +25,8 @@ import java.util.Map;
 public class PayMongoController {
 
     private final PayMongoService payMongoService;
+    private final PayMongoWebhookInbox webhookInbox;
+    private final PaymentStatusTracker statusTracker;
 
     /**
      * Create a Payment Intent for a booking
@@ -37,15 +46,41 @@ public class PayMongoController {
 
     /**
      * Get the status of a Payment Intent
+     * Served from a short-lived cache that webhooks keep up to date
      */
     @GetMapping("/intent/{paymentIntentId}/status")
     public ResponseEntity<PaymentStatusResponse> getPaymentStatus(
             @PathVariable String paymentIntentId) {
         
-        PaymentStatusResponse response = payMongoService.getPaymentIntentStatus(paymentIntentId);
+        PaymentStatusResponse response = payMongoService.getCachedPaymentIntentStatus(paymentIntentId);
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Long-poll for a Payment Intent status change
+     * Answers as soon as the status differs from {@code since}, or with the current status
+     * after {@code timeoutSeconds}. Without {@code since} it answers immediately.
+     */
+    @GetMapping("/intent/{paymentIntentId}/status/wait")
+    public DeferredResult<PaymentStatusResponse> waitForPaymentStatus(
+            @PathVariable String paymentIntentId,
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "25") int timeoutSeconds) {
+
+        long timeoutMs = Math.min(Math.max(timeoutSeconds, 1), 60) * 1000L;
+        DeferredResult<PaymentStatusResponse> result = new DeferredResult<>(timeoutMs);
+
+        PaymentStatusResponse current = payMongoService.getCachedPaymentIntentStatus(paymentIntentId);
+        if (since == null || !since.equals(current.getStatus())) {
+            result.setResult(current);
+            return result;
+        }
+
+        result.onTimeout(() -> result.setResult(payMongoService.getCachedPaymentIntentStatus(paymentIntentId)));
+        statusTracker.await(paymentIntentId, since, result);
+        return result;
+    }
+
     /**
      * Verify and complete payment after user returns from payment
      * Called from frontend after redirect
@@ -55,12 +90,20 @@ public class PayMongoController {
         try {
             Booking booking = payMongoService.handlePaymentSuccess(paymentIntentId);
             Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
+            response.put("success", booking.getStatus() == Booking.Status.CONFIRMED);
             response.put("bookingId", booking.getId());
             response.put("status", booking.getStatus().name());
             response.put("qrCodeText", booking.getQrCodeText());
             response.put("booking", booking);
             return ResponseEntity.ok(response);
+        } catch (SeatsNoLongerHeldException e) {
+            // Also what every repeat for a payment that came too late gets
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "success", false,
+                    "bookingId", e.getBookingId(),
+                    "status", Booking.Status.REFUND_REQUIRED.name(),
+                    "error", e.getMessage()
+            ));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
                     "success", false,
@@ -72,21 +115,30 @@ public class PayMongoController {
     /**
      * Webhook endpoint for PayMongo events
      * Must be registered in PayMongo dashboard
+     *
+     * The raw event is stored and acknowledged right away; it is processed in the background.
      */
     @PostMapping("/webhook")
     public ResponseEntity<String> handleWebhook(
-            @RequestBody Map<String, Object> payload,
+            @RequestBody String payload,
             @RequestHeader(value = "Paymongo-Signature", required = false) String signature) {
         
         // In production, verify the signature
         // See: https://developers.paymongo.com/docs/creating-webhook
         
         try {
-            payMongoService.handleWebhookEvent(payload);
-            return ResponseEntity.ok("Webhook processed");
+            webhookInbox.accept(payload);
+            return ResponseEntity.ok("Webhook received");
+        } catch (JsonProcessingException e) {
+            log.warn("Rejected malformed webhook payload: {}", e.getOriginalMessage());
+            return ResponseEntity.badRequest().body("Invalid payload");
+        } catch (WebhookPayloadTooLargeException e) {
+            log.warn("Rejected webhook payload: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body("Payload too large");
         } catch (Exception e) {
-            log.error("Webhook processing failed", e);
-            return ResponseEntity.ok("Webhook received"); // Always return 2xx
+            // Not stored: a non-2xx makes PayMongo deliver it again
+            log.error("Failed to store webhook event", e);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Webhook not stored");
         }
     }
 }
\ No newline at end of file
@@ -1,12 +1,16 @@
 package edu.cit.lgng.backend.controller;
 
+import edu.cit.lgng.backend.dto.RouteScheduleStatsDto;
+import edu.cit.lgng.backend.dto.SchedulePageDto;
 import edu.cit.lgng.backend.model.Schedule;
 import edu.cit.lgng.backend.model.Seat;
-import edu.cit.lgng.backend.repository.SeatRepository;
 import edu.cit.lgng.backend.service.ScheduleService;
+import edu.cit.lgng.backend.service.SeatService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
 import java.util.List;
 import org.springframework.security.access.prepost.PreAuthorize;
 
@@ -15,11 +19,34 @@ import org.springframework.security.access.prepost.PreAuthorize;
 @RequiredArgsConstructor
 public class ScheduleController {
     private final ScheduleService scheduleService;
-    private final SeatRepository seatRepo;
+    private final SeatService seatService;
 
     @GetMapping
     public List<Schedule> all() { return scheduleService.all(); }
 
+    /**
+     * Paginated schedule search for the booking flow. Defaults to trips from today onwards.
+     */
+    @GetMapping("/search")
+    public SchedulePageDto search(
+            @RequestParam(required = false) String origin,
+            @RequestParam(required = false) String destination,
+            @RequestParam(required = false) Long routeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+        return scheduleService.search(origin, destination, routeId, from, to, after, size);
+    }
+
+    /**
+     * Trip count, lowest price and available seats per route, over all schedules.
+     */
+    @GetMapping("/route-stats")
+    public List<RouteScheduleStatsDto> routeStats() {
+        return scheduleService.routeStats();
+    }
+
     @PreAuthorize("hasAnyAuthority('ADMIN', 'SUPER_ADMIN')")
     @PostMapping
     public Schedule create(@RequestBody Schedule s) {
@@ -41,7 +68,7 @@ public class ScheduleController {
 
     @GetMapping("/{id}/seats")
     public ResponseEntity<List<Seat>> seats(@PathVariable Long id) {
-        return ResponseEntity.ok(seatRepo.findByScheduleId(id));
+        return ResponseEntity.ok(seatService.getSeatsBySchedule(id));
     }
 }
 
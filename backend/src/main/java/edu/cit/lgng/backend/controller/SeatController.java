@@ -1,6 +1,7 @@
 package edu.cit.lgng.backend.controller;
 
 import edu.cit.lgng.backend.model.Seat;
+import edu.cit.lgng.backend.service.SeatContentionMetrics;
 import edu.cit.lgng.backend.service.SeatService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -16,6 +17,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 @RequiredArgsConstructor
 public class SeatController {
     private final SeatService seatService;
+    private final SeatContentionMetrics contentionMetrics;
 
     @PreAuthorize("hasAnyAuthority('ADMIN', 'SUPER_ADMIN')")
     @PostMapping("/generate/{scheduleId}")
@@ -35,5 +37,11 @@ public class SeatController {
     public ResponseEntity<?> getSeats(@PathVariable Long scheduleId) {
         return ResponseEntity.ok(seatService.getSeatsBySchedule(scheduleId));
     }
+
+    @PreAuthorize("hasAnyAuthority('ADMIN', 'SUPER_ADMIN')")
+    @GetMapping("/contention")
+    public ResponseEntity<?> getContention(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(contentionMetrics.top(limit));
+    }
 }
 
@@ -0,0 +1,67 @@
+package edu.cit.lgng.backend.controller;
+
+import edu.cit.lgng.backend.dto.TicketDto.*;
+import edu.cit.lgng.backend.service.TicketCodec;
+import edu.cit.lgng.backend.service.TicketService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+
+@RestController
+@RequestMapping("/api/tickets")
+@RequiredArgsConstructor
+public class TicketController {
+    private final TicketCodec ticketCodec;
+    private final TicketService ticketService;
+
+    /**
+     * Checks a scanned ticket's signature and decodes it, without any database lookup.
+     * Cancellations are not visible here; the schedule manifest carries those.
+     * The token is used verbatim; scanners must not trim or URL-decode it (see {@link TicketCodec}).
+     */
+    @PreAuthorize("hasAnyAuthority('CONDUCTOR', 'ADMIN', 'SUPER_ADMIN')")
+    @PostMapping("/verify")
+    public ResponseEntity<VerifyResponse> verify(@RequestBody VerifyRequest request) {
+        TicketCodec.Ticket ticket;
+        try {
+            ticket = ticketCodec.verify(request.getToken());
+        } catch (RuntimeException e) {
+            return ResponseEntity.ok(VerifyResponse.builder().valid(false).error(e.getMessage()).build());
+        }
+
+        boolean rightTrip = request.getScheduleId() == null || request.getScheduleId().equals(ticket.scheduleId());
+        return ResponseEntity.ok(VerifyResponse.builder()
+                .valid(rightTrip)
+                .bookingId(ticket.bookingId())
+                .scheduleId(ticket.scheduleId())
+                .seatNumbers(ticket.seatNumbers())
+                .error(rightTrip ? null : "Ticket is for another trip")
+                .build());
+    }
+
+    /**
+     * Boarding manifest for a schedule, downloaded by conductors before departure.
+     * Re-downloads with a matching If-None-Match get a 304.
+     */
+    @PreAuthorize("hasAnyAuthority('CONDUCTOR', 'ADMIN', 'SUPER_ADMIN')")
+    @GetMapping("/manifest/{scheduleId}")
+    public ResponseEntity<Manifest> getManifest(@PathVariable Long scheduleId) {
+        Manifest manifest = ticketService.getManifest(scheduleId);
+        return ResponseEntity.ok()
+                .eTag("\"" + manifest.getVersion() + "\"")
+                .body(manifest);
+    }
+
+    /**
+     * Uploads scans made offline, in bulk, once the device is back online.
+     * Each scan gets its own result, in upload order.
+     */
+    @PreAuthorize("hasAnyAuthority('CONDUCTOR', 'ADMIN', 'SUPER_ADMIN')")
+    @PostMapping("/check-ins")
+    public ResponseEntity<CheckInBatchResponse> checkIn(@RequestBody CheckInBatchRequest request, Principal principal) {
+        return ResponseEntity.ok(ticketService.checkIn(request, principal != null ? principal.getName() : null));
+    }
+}
@@ -0,0 +1,32 @@
+package edu.cit.lgng.backend.dto;
+
+import edu.cit.lgng.backend.model.Booking;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * One booking in the admin export: flat summary columns only, no QR text or password hash.
+ */
+@Data
+@AllArgsConstructor
+public class BookingExportRow {
+    private Long id;
+    private Instant createdAt;
+    private Booking.Status status;
+    private BigDecimal amount;
+    private String paymentRef;
+    private Long userId;
+    private String userName;
+    private String userEmail;
+    private Long scheduleId;
+    private LocalDate travelDate;
+    private LocalTime departureTime;
+    private String origin;
+    private String destination;
+    private String busNumber;
+}
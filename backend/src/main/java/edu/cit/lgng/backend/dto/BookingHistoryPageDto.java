@@ -0,0 +1,13 @@
+package edu.cit.lgng.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BookingHistoryPageDto {
+    private List<BookingSummaryDto> items;
+    private String nextCursor; // null on the last page
+}
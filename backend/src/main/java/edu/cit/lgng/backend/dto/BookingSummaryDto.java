@@ -0,0 +1,32 @@
+package edu.cit.lgng.backend.dto;
+
+import edu.cit.lgng.backend.model.Booking;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * A booking as shown in a traveller's history. The QR payload is fetched separately.
+ */
+@Data
+@AllArgsConstructor
+public class BookingSummaryDto {
+    private Long id;
+    private Instant createdAt;
+    private Booking.Status status;
+    private BigDecimal amount;
+    private Long scheduleId;
+    private LocalDate travelDate;
+    private LocalTime departureTime;
+    private LocalTime arrivalTime;
+    private String origin;
+    private String destination;
+    private String busNumber;
+    private String busType;
+    private List<String> seatNumbers;
+}
@@ -0,0 +1,18 @@
+package edu.cit.lgng.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Schedule totals for one route, for the dashboard and route listings.
+ */
+@Data
+@AllArgsConstructor
+public class RouteScheduleStatsDto {
+    private Long routeId;
+    private Long trips;
+    private BigDecimal minPrice;
+    private Long availableSeats;
+}
@@ -0,0 +1,14 @@
+package edu.cit.lgng.backend.dto;
+
+import edu.cit.lgng.backend.model.Schedule;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SchedulePageDto {
+    private List<Schedule> items;
+    private String nextCursor; // null on the last page
+}
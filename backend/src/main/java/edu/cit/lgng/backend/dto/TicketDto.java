@@ -0,0 +1,117 @@
+package edu.cit.lgng.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+public class TicketDto {
+
+    // ==================== REQUEST DTOs ====================
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class VerifyRequest {
+        private String token; // exactly as scanned: may contain spaces and + / : %
+        private Long scheduleId; // optional: the trip being boarded
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CheckInBatchRequest {
+        private Long scheduleId;
+        private String deviceId;
+        private List<Scan> scans;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Scan {
+        private String token;    // scanned QR payload
+        private Long bookingId;  // when the code was keyed in by hand instead
+        private Instant scannedAt;
+    }
+
+    // ==================== RESPONSE DTOs ====================
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class VerifyResponse {
+        private boolean valid;
+        private Long bookingId;
+        private Long scheduleId;
+        private List<String> seatNumbers;
+        private String error;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Manifest {
+        private Long scheduleId;
+        private LocalDate travelDate;
+        private LocalTime departureTime;
+        private String origin;
+        private String destination;
+        private String busNumber;
+        private Instant generatedAt;
+        private String version; // changes whenever the ticket list does; also the ETag
+        private List<ManifestEntry> tickets;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ManifestEntry {
+        private Long bookingId;
+        private List<String> seats;
+        private String hash; // TicketCodec.fingerprint of the ticket token; null if the seats cannot be encoded
+    }
+
+    public enum CheckInResult {
+        ACCEPTED,
+        DUPLICATE,
+        INVALID,
+        WRONG_TRIP,
+        NOT_CONFIRMED,
+        UNKNOWN_BOOKING
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ScanResult {
+        private Long bookingId;
+        private CheckInResult result;
+        private List<String> seatNumbers;
+        private Instant checkedInAt; // for DUPLICATE: when the ticket was first checked in
+        private String error;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CheckInBatchResponse {
+        private int accepted;
+        private int duplicates;
+        private int rejected;
+        private List<ScanResult> results; // same order as the uploaded scans
+    }
+}
@@ -0,0 +1,21 @@
+package edu.cit.lgng.backend.exception;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Thrown when one or more requested seats were taken by another booking.
+ * Mapped to HTTP 409 so clients can refresh the seat map and let the user pick again.
+ */
+@Getter
+public class SeatConflictException extends RuntimeException {
+    private final Long scheduleId;
+    private final List<String> seatNumbers;
+
+    public SeatConflictException(Long scheduleId, List<String> seatNumbers) {
+        super("Seat not available: " + String.join(", ", seatNumbers));
+        this.scheduleId = scheduleId;
+        this.seatNumbers = seatNumbers;
+    }
+}
@@ -0,0 +1,25 @@
+package edu.cit.lgng.backend.exception;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Thrown when a paid booking cannot occupy all of its seats, because its hold expired and
+ * some of the released seats were sold to someone else in the meantime.
+ * The booking is never confirmed; it is left as REFUND_REQUIRED. Mapped to HTTP 409.
+ */
+@Getter
+public class SeatsNoLongerHeldException extends RuntimeException {
+    private final Long bookingId;
+    private final Long scheduleId;
+    private final List<String> seatNumbers;
+
+    public SeatsNoLongerHeldException(Long bookingId, Long scheduleId, List<String> seatNumbers) {
+        super("Seats of booking " + bookingId + " are no longer available: " + String.join(", ", seatNumbers)
+                + ". The payment will be refunded.");
+        this.bookingId = bookingId;
+        this.scheduleId = scheduleId;
+        this.seatNumbers = seatNumbers;
+    }
+}
@@ -0,0 +1,19 @@
+package edu.cit.lgng.backend.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a webhook body is larger than the inbox stores ({@code paymongo.webhook.max-payload-bytes}).
+ * The webhook endpoint answers HTTP 413 and nothing is written.
+ */
+@Getter
+public class WebhookPayloadTooLargeException extends RuntimeException {
+    private final long size;
+    private final long limit;
+
+    public WebhookPayloadTooLargeException(long size, long limit) {
+        super("Webhook payload of " + size + " bytes exceeds the limit of " + limit + " bytes");
+        this.size = size;
+        this.limit = limit;
+    }
+}
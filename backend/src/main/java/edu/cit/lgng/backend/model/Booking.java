@@ -6,7 +6,9 @@ import java.math.BigDecimal;
 import java.time.Instant;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_status_created", columnList = "status, created_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -44,6 +46,8 @@ public class Booking {
     public enum Status {
         PENDING,
         CONFIRMED,
-        CANCELLED
+        CANCELLED,
+        // Paid after the hold expired and its seats were resold; waiting for a refund
+        REFUND_REQUIRED
     }
 }
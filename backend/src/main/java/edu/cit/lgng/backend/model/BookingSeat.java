@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "booking_seats")
+@Table(name = "booking_seats", indexes = {
+        @Index(name = "idx_booking_seats_booking", columnList = "booking_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -6,7 +6,10 @@ import java.math.BigDecimal;
 import java.time.Instant;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", uniqueConstraints = {
+        // One payment per PayMongo intent: a second confirmation of the same intent fails here
+        @UniqueConstraint(name = "uk_payments_provider_ref", columnNames = "provider_ref")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
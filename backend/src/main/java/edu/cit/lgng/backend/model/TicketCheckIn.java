@@ -0,0 +1,44 @@
+package edu.cit.lgng.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A boarded ticket. At most one per booking; later scans of the same ticket are duplicates.
+ */
+@Entity
+@Table(name = "ticket_check_ins", indexes = {
+        @Index(name = "idx_ticket_check_ins_schedule", columnList = "schedule_id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_ticket_check_ins_booking", columnNames = "booking_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TicketCheckIn {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "booking_id", nullable = false)
+    private Long bookingId;
+
+    @Column(name = "schedule_id", nullable = false)
+    private Long scheduleId;
+
+    // When the conductor's device scanned the ticket, possibly long before upload
+    @Column(name = "scanned_at", nullable = false)
+    private Instant scannedAt;
+
+    @Column(name = "received_at", nullable = false, updatable = false)
+    @Builder.Default
+    private Instant receivedAt = Instant.now();
+
+    @Column(name = "checked_in_by")
+    private String checkedInBy;
+
+    @Column(name = "device_id", length = 64)
+    private String deviceId;
+}
@@ -32,6 +32,7 @@ public class User {
 
     public enum Role {
         USER,
+        CONDUCTOR,
         ADMIN,
         SUPER_ADMIN
     }
@@ -0,0 +1,63 @@
+package edu.cit.lgng.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.Instant;
+
+/**
+ * Raw PayMongo webhook event, stored before it is processed so nothing is lost
+ * if the app stops between acknowledging and handling it.
+ */
+@Entity
+@Table(name = "webhook_events", indexes = {
+        @Index(name = "idx_webhook_events_status_id", columnList = "status, id")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_webhook_events_event_id", columnNames = "event_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WebhookEvent {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // PayMongo's event ID (evt_...), used to drop redelivered events
+    @Column(name = "event_id", nullable = false, length = 64)
+    private String eventId;
+
+    @Column(name = "event_type", length = 64)
+    private String eventType;
+
+    // Events with the same key are processed in arrival order (booking ID, or intent ID)
+    @Column(name = "ordering_key", length = 64)
+    private String orderingKey;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private Status status = Status.RECEIVED;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "received_at", nullable = false, updatable = false)
+    @Builder.Default
+    private Instant receivedAt = Instant.now();
+
+    @Column(name = "processed_at")
+    private Instant processedAt;
+
+    public enum Status {
+        RECEIVED,
+        PROCESSED,
+        FAILED
+    }
+}
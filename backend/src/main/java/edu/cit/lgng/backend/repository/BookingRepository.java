@@ -1,11 +1,123 @@
 package edu.cit.lgng.backend.repository;
 
 import edu.cit.lgng.backend.model.Booking;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByUserId(Long userId);
     List<Booking> findByScheduleId(Long scheduleId);
-    void deleteByScheduleId(Long scheduleId);
+
+    @Modifying
+    @Query("DELETE FROM Booking b WHERE b.schedule.id IN :scheduleIds")
+    int deleteByScheduleIds(@Param("scheduleIds") Collection<Long> scheduleIds);
+
+    @Query("SELECT b.id AS id, b.schedule.id AS scheduleId, b.createdAt AS createdAt FROM Booking b " +
+           "WHERE b.status = edu.cit.lgng.backend.model.Booking.Status.PENDING AND b.createdAt < :cutoff " +
+           "ORDER BY b.createdAt")
+    List<PendingHold> findPendingCreatedBefore(@Param("cutoff") Instant cutoff, Pageable pageable);
+
+    /**
+     * Reads a booking and locks its row until the transaction ends, so a concurrent
+     * {@link #cancelIfPending} either commits before this read or waits for our commit.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Booking b WHERE b.id = :id")
+    Optional<Booking> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Cancels a booking only if it is still PENDING. Returns 0 when a confirmation got there first.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = edu.cit.lgng.backend.model.Booking.Status.CANCELLED " +
+           "WHERE b.id = :id AND b.status = edu.cit.lgng.backend.model.Booking.Status.PENDING")
+    int cancelIfPending(@Param("id") Long id);
+
+    /**
+     * Sets only the payment reference, in its own short transaction when called without one.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Booking b SET b.paymentRef = :paymentRef WHERE b.id = :id")
+    int updatePaymentRef(@Param("id") Long id, @Param("paymentRef") String paymentRef);
+
+    /**
+     * One keyset page of a user's bookings, newest first: only summary columns, in one join query.
+     * Rows with an id below {@code beforeId} are returned.
+     */
+    @Query("SELECT b.id AS id, b.createdAt AS createdAt, b.status AS status, b.amount AS amount, " +
+           "s.id AS scheduleId, s.travelDate AS travelDate, s.departureTime AS departureTime, " +
+           "s.arrivalTime AS arrivalTime, r.origin AS origin, r.destination AS destination, " +
+           "bus.busNumber AS busNumber, bt.name AS busType " +
+           "FROM Booking b JOIN b.schedule s JOIN s.route r JOIN s.bus bus LEFT JOIN bus.busType bt " +
+           "WHERE b.user.id = :userId AND b.id < :beforeId ORDER BY b.id DESC")
+    List<BookingSummary> findSummariesByUserId(@Param("userId") Long userId,
+                                               @Param("beforeId") Long beforeId,
+                                               Pageable limit);
+
+    @Query("SELECT b.user.id AS userId, b.qrCodeText AS qrCodeText FROM Booking b WHERE b.id = :id")
+    Optional<BookingTicket> findTicketById(@Param("id") Long id);
+
+    @Query("SELECT b.id AS id, b.schedule.id AS scheduleId, b.status AS status FROM Booking b WHERE b.id IN :ids")
+    List<BookingState> findStatesByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * One keyset page of CONFIRMED bookings whose QR payload is not a signed ticket token
+     * (the JSON payload from before {@code BM1:} tokens), ids above {@code afterId}.
+     */
+    @Query("SELECT b.id AS id, b.schedule.id AS scheduleId, b.status AS status FROM Booking b " +
+           "WHERE b.status = edu.cit.lgng.backend.model.Booking.Status.CONFIRMED AND b.id > :afterId " +
+           "AND (b.qrCodeText IS NULL OR b.qrCodeText NOT LIKE 'BM1:%') ORDER BY b.id")
+    List<BookingState> findLegacyTickets(@Param("afterId") Long afterId, Pageable limit);
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.qrCodeText = :qrCodeText " +
+           "WHERE b.id = :id AND b.status = edu.cit.lgng.backend.model.Booking.Status.CONFIRMED")
+    int updateConfirmedQrCodeText(@Param("id") Long id, @Param("qrCodeText") String qrCodeText);
+
+    interface BookingTicket {
+        Long getUserId();
+        String getQrCodeText();
+    }
+
+    interface BookingState {
+        Long getId();
+        Long getScheduleId();
+        Booking.Status getStatus();
+    }
+
+    interface BookingSummary {
+        Long getId();
+        Instant getCreatedAt();
+        Booking.Status getStatus();
+        BigDecimal getAmount();
+        Long getScheduleId();
+        LocalDate getTravelDate();
+        LocalTime getDepartureTime();
+        LocalTime getArrivalTime();
+        String getOrigin();
+        String getDestination();
+        String getBusNumber();
+        String getBusType();
+    }
+
+    interface PendingHold {
+        Long getId();
+        Long getScheduleId();
+        Instant getCreatedAt();
+    }
 }
@@ -3,11 +3,40 @@ package edu.cit.lgng.backend.repository;
 import edu.cit.lgng.backend.model.Booking;
 import edu.cit.lgng.backend.model.BookingSeat;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 
 public interface BookingSeatRepository extends JpaRepository<BookingSeat, Long> {
     List<BookingSeat> findByBookingId(Long bookingId);
+
+    @Query("SELECT bs.seatNumber FROM BookingSeat bs WHERE bs.booking.id = :bookingId")
+    List<String> findSeatNumbersByBookingId(@Param("bookingId") Long bookingId);
+
+    @Query("SELECT bs.booking.id AS bookingId, bs.seatNumber AS seatNumber FROM BookingSeat bs " +
+           "WHERE bs.booking.id IN :bookingIds")
+    List<SeatOfBooking> findSeatNumbersByBookingIds(@Param("bookingIds") Collection<Long> bookingIds);
+
     List<BookingSeat> findByScheduleId(Long scheduleId);
+
+    /**
+     * Same rows as {@link #findByScheduleId}, limited to CONFIRMED bookings and without loading entities.
+     */
+    @Query("SELECT bs.booking.id AS bookingId, bs.seatNumber AS seatNumber FROM BookingSeat bs " +
+           "WHERE bs.schedule.id = :scheduleId " +
+           "AND bs.booking.status = edu.cit.lgng.backend.model.Booking.Status.CONFIRMED " +
+           "ORDER BY bs.booking.id")
+    List<SeatOfBooking> findConfirmedSeatsByScheduleId(@Param("scheduleId") Long scheduleId);
     void deleteByBookingId(Long bookingId);
-    void deleteByScheduleId(Long scheduleId);
+
+    @Modifying
+    @Query("DELETE FROM BookingSeat bs WHERE bs.schedule.id IN :scheduleIds")
+    int deleteByScheduleIds(@Param("scheduleIds") Collection<Long> scheduleIds);
+
+    interface SeatOfBooking {
+        Long getBookingId();
+        String getSeatNumber();
+    }
 }
@@ -2,9 +2,15 @@ package edu.cit.lgng.backend.repository;
 
 import edu.cit.lgng.backend.model.Bus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 
 public interface BusRepository extends JpaRepository<Bus, Long> {
     List<Bus> findByBusTypeId(Long busTypeId);
-    void deleteByBusTypeId(Long busTypeId);
+
+    @Modifying
+    @Query("DELETE FROM Bus b WHERE b.busType.id = :busTypeId")
+    int deleteAllByBusTypeId(@Param("busTypeId") Long busTypeId);
 }
@@ -2,6 +2,19 @@ package edu.cit.lgng.backend.repository;
 
 import edu.cit.lgng.backend.model.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Optional;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
+    @Query("SELECT p.booking.id FROM Payment p WHERE p.providerRef = :providerRef")
+    Optional<Long> findBookingIdByProviderRef(@Param("providerRef") String providerRef);
+
+    @Modifying
+    @Query("DELETE FROM Payment p WHERE p.booking.id IN " +
+           "(SELECT b.id FROM Booking b WHERE b.schedule.id IN :scheduleIds)")
+    int deleteByScheduleIds(@Param("scheduleIds") Collection<Long> scheduleIds);
 }
@@ -1,12 +1,82 @@
 package edu.cit.lgng.backend.repository;
 
+import edu.cit.lgng.backend.dto.RouteScheduleStatsDto;
 import edu.cit.lgng.backend.model.Schedule;
+import edu.cit.lgng.backend.config.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
+    /**
+     * Full timetable, cached; callers overlay live seat counts on top.
+     */
+    @Cacheable(CacheConfig.SCHEDULES)
+    @Query("SELECT s FROM Schedule s")
+    List<Schedule> findAllCached();
+
+    /**
+     * One keyset page of schedules on the given routes and dates, ordered by departure.
+     * Rows strictly after the (afterDate, afterTime, afterId) cursor are returned, so the
+     * query walks idx_schedules_route_date_time instead of counting through an OFFSET.
+     */
+    @Query("SELECT s FROM Schedule s JOIN FETCH s.route r JOIN FETCH s.bus b JOIN FETCH b.busType " +
+           "WHERE r.id IN :routeIds AND s.travelDate BETWEEN :from AND :to " +
+           "AND (s.travelDate > :afterDate OR (s.travelDate = :afterDate AND " +
+           "(s.departureTime > :afterTime OR (s.departureTime = :afterTime AND s.id > :afterId)))) " +
+           "ORDER BY s.travelDate, s.departureTime, s.id")
+    List<Schedule> searchPage(@Param("routeIds") Collection<Long> routeIds,
+                              @Param("from") LocalDate from,
+                              @Param("to") LocalDate to,
+                              @Param("afterDate") LocalDate afterDate,
+                              @Param("afterTime") LocalTime afterTime,
+                              @Param("afterId") Long afterId,
+                              Pageable limit);
+
     List<Schedule> findByBusId(Long busId);
     List<Schedule> findByRouteId(Long routeId);
-    void deleteByBusId(Long busId);
-    void deleteByRouteId(Long routeId);
+
+    // Schedule IDs in chunks, for the cascade deletes in ScheduleCascadeDeleter
+    /**
+     * Trip count, lowest price and available seats of every route with schedules, in one GROUP BY.
+     */
+    @Query("SELECT new edu.cit.lgng.backend.dto.RouteScheduleStatsDto(" +
+           "s.route.id, COUNT(s), MIN(s.price), COALESCE(SUM(s.availableSeats), 0L)) " +
+           "FROM Schedule s GROUP BY s.route.id")
+    List<RouteScheduleStatsDto> findRouteStats();
+
+    @Query("SELECT s.id FROM Schedule s WHERE s.route.id = :routeId ORDER BY s.id")
+    List<Long> findIdsByRouteId(@Param("routeId") Long routeId, Pageable limit);
+
+    @Query("SELECT s.id FROM Schedule s WHERE s.bus.id = :busId ORDER BY s.id")
+    List<Long> findIdsByBusId(@Param("busId") Long busId, Pageable limit);
+
+    @Query("SELECT s.id FROM Schedule s WHERE s.bus.busType.id = :busTypeId ORDER BY s.id")
+    List<Long> findIdsByBusTypeId(@Param("busTypeId") Long busTypeId, Pageable limit);
+
+    @Modifying
+    @Query("DELETE FROM Schedule s WHERE s.id IN :ids")
+    int deleteAllByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Atomically takes {@code count} seats off the counter. Returns 0 instead of going below zero,
+     * which means the schedule is oversold and the caller must not go on. Schedules without a
+     * counter (null) are left null and still count as updated.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Schedule s SET s.availableSeats = s.availableSeats - :count " +
+           "WHERE s.id = :id AND (s.availableSeats IS NULL OR s.availableSeats >= :count)")
+    int decrementAvailableSeats(@Param("id") Long id, @Param("count") int count);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Schedule s SET s.availableSeats = s.availableSeats + :count " +
+           "WHERE s.id = :id AND s.availableSeats IS NOT NULL")
+    int incrementAvailableSeats(@Param("id") Long id, @Param("count") int count);
 }
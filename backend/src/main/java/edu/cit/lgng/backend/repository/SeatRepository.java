@@ -2,12 +2,45 @@ package edu.cit.lgng.backend.repository;
 
 import edu.cit.lgng.backend.model.Seat;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface SeatRepository extends JpaRepository<Seat, Long> {
     List<Seat> findByScheduleId(Long scheduleId);
-    void deleteByScheduleId(Long scheduleId);
+    List<Seat> findByScheduleIdAndSeatNumberIn(Long scheduleId, Collection<String> seatNumbers);
+
+    @Modifying
+    @Query("DELETE FROM Seat s WHERE s.schedule.id IN :scheduleIds")
+    int deleteByScheduleIds(@Param("scheduleIds") Collection<Long> scheduleIds);
+
+    /**
+     * Moves the given seats of a schedule from one status to another in a single UPDATE.
+     * Only seats currently in {@code from} are touched, so the returned row count doubles
+     * as an atomic availability check: anything short of {@code seatNumbers.size()} means
+     * at least one seat was missing or already in a different state.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Seat s SET s.status = :to " +
+           "WHERE s.schedule.id = :scheduleId AND s.seatNumber IN :seatNumbers AND s.status = :from")
+    int transitionStatus(@Param("scheduleId") Long scheduleId,
+                         @Param("seatNumbers") Collection<String> seatNumbers,
+                         @Param("from") Seat.Status from,
+                         @Param("to") Seat.Status to);
+
+    @Query("SELECT s.schedule.id AS scheduleId, COUNT(s) AS available FROM Seat s " +
+           "WHERE s.status = edu.cit.lgng.backend.model.Seat.Status.AVAILABLE AND s.schedule.travelDate >= :from " +
+           "GROUP BY s.schedule.id")
+    List<AvailableSeatCount> countAvailableByScheduleFrom(@Param("from") LocalDate from);
+
+    interface AvailableSeatCount {
+        Long getScheduleId();
+        Long getAvailable();
+    }
 }
@@ -0,0 +1,19 @@
+package edu.cit.lgng.backend.repository;
+
+import edu.cit.lgng.backend.model.TicketCheckIn;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface TicketCheckInRepository extends JpaRepository<TicketCheckIn, Long> {
+    List<TicketCheckIn> findByBookingIdIn(Collection<Long> bookingIds);
+    long countByScheduleId(Long scheduleId);
+
+    @Modifying
+    @Query("DELETE FROM TicketCheckIn c WHERE c.scheduleId IN :scheduleIds")
+    int deleteByScheduleIds(@Param("scheduleIds") Collection<Long> scheduleIds);
+}
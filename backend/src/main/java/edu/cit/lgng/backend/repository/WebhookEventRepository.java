@@ -0,0 +1,32 @@
+package edu.cit.lgng.backend.repository;
+
+import edu.cit.lgng.backend.model.WebhookEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface WebhookEventRepository extends JpaRepository<WebhookEvent, Long> {
+    boolean existsByEventId(String eventId);
+
+    @Query("SELECT e FROM WebhookEvent e WHERE e.status = edu.cit.lgng.backend.model.WebhookEvent.Status.RECEIVED " +
+           "AND e.receivedAt < :before ORDER BY e.id")
+    List<WebhookEvent> findReceivedBefore(@Param("before") Instant before, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE WebhookEvent e SET e.status = edu.cit.lgng.backend.model.WebhookEvent.Status.PROCESSED, " +
+           "e.processedAt = :processedAt, e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+    int markProcessed(@Param("ids") Collection<Long> ids, @Param("processedAt") Instant processedAt);
+
+    @Modifying
+    @Query("UPDATE WebhookEvent e SET e.status = :status, e.attempts = e.attempts + 1, e.lastError = :error " +
+           "WHERE e.id = :id")
+    int markFailedAttempt(@Param("id") Long id, @Param("status") WebhookEvent.Status status, @Param("error") String error);
+
+    long countByStatus(WebhookEvent.Status status);
+}
@@ -0,0 +1,34 @@
+package edu.cit.lgng.backend.service;
+
+import edu.cit.lgng.backend.config.CacheConfig;
+import edu.cit.lgng.backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Short-lived cache of the account state the JWT filter needs on every request:
+ * whether the user still exists (not soft-deleted), their id and their current role.
+ * Entries expire quickly and are evicted on role changes and deletes.
+ */
+@Service
+@RequiredArgsConstructor
+public class AuthPrincipalService {
+    private final UserRepository userRepository;
+
+    @Cacheable(cacheNames = CacheConfig.AUTH_PRINCIPALS, key = "#email")
+    public Optional<AuthPrincipal> findActive(String email) {
+        return userRepository.findByEmailAndNotDeleted(email)
+                .map(u -> new AuthPrincipal(u.getId(), u.getEmail(), u.getRole().name()));
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.AUTH_PRINCIPALS, key = "#email")
+    public void evict(String email) {
+    }
+
+    public record AuthPrincipal(Long id, String email, String role) {
+    }
+}
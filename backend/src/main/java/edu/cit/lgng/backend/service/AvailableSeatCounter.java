@@ -0,0 +1,70 @@
+package edu.cit.lgng.backend.service;
+
+import edu.cit.lgng.backend.repository.SeatRepository;
+import edu.cit.lgng.backend.util.Transactions;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Striped in-memory available-seat counters for upcoming schedules, used by schedule listings.
+ * Bookings adjust them after commit; a periodic job resets them from the seats table,
+ * so any drift only lives until the next reconcile.
+ */
+@Component
+@ConditionalOnProperty(name = "schedules.seat-counter.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class AvailableSeatCounter {
+
+    private final SeatRepository seatRepo;
+    private final Map<Long, LongAdder> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the counter for a schedule, or empty if it has not been loaded yet
+     * (callers fall back to {@code Schedule.availableSeats}).
+     */
+    public OptionalInt get(Long scheduleId) {
+        LongAdder adder = counters.get(scheduleId);
+        return adder == null ? OptionalInt.empty() : OptionalInt.of((int) Math.max(0, adder.sum()));
+    }
+
+    public void addAfterCommit(Long scheduleId, int delta) {
+        Transactions.runAfterCommit(() -> add(scheduleId, delta));
+    }
+
+    public void add(Long scheduleId, int delta) {
+        LongAdder adder = counters.get(scheduleId);
+        if (adder != null) {
+            adder.add(delta);
+        }
+    }
+
+    public void remove(Long scheduleId) {
+        counters.remove(scheduleId);
+    }
+
+    @Scheduled(fixedDelayString = "${schedules.seat-counter.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        Set<Long> seen = new HashSet<>();
+        for (SeatRepository.AvailableSeatCount count : seatRepo.countAvailableByScheduleFrom(LocalDate.now())) {
+            LongAdder fresh = new LongAdder();
+            fresh.add(count.getAvailable());
+            counters.put(count.getScheduleId(), fresh);
+            seen.add(count.getScheduleId());
+        }
+        // Sold-out, past and deleted schedules drop out and fall back to the schedule column
+        counters.keySet().removeIf(id -> !seen.contains(id));
+        log.debug("Reconciled available seat counters for {} schedules", seen.size());
+    }
+}
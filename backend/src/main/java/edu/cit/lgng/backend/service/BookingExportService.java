@@ -0,0 +1,147 @@
+package edu.cit.lgng.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import edu.cit.lgng.backend.dto.BookingExportRow;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Streams every booking to an output stream as NDJSON or CSV.
+ *
+ * Rows come from a forward-only cursor over a flat projection, so no entities are loaded and
+ * nothing is kept in the persistence context: heap use does not grow with the number of bookings.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingExportService {
+
+    private static final String EXPORT_QUERY =
+            "SELECT new edu.cit.lgng.backend.dto.BookingExportRow(" +
+            "b.id, b.createdAt, b.status, b.amount, b.paymentRef, " +
+            "u.id, u.name, u.email, " +
+            "s.id, s.travelDate, s.departureTime, r.origin, r.destination, bus.busNumber) " +
+            "FROM Booking b JOIN b.user u JOIN b.schedule s JOIN s.route r JOIN s.bus bus " +
+            "ORDER BY b.id";
+
+    // Rows per round trip for drivers that stream with a positive fetch size (PostgreSQL, H2, ...)
+    private static final int DEFAULT_FETCH_SIZE = 500;
+
+    private static final String CSV_HEADER = "id,createdAt,status,amount,paymentRef,userId,userName,userEmail," +
+            "scheduleId,travelDate,departureTime,origin,destination,busNumber";
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    // 0 picks one for the database in use: MySQL Connector/J only streams rows one by one with
+    // Integer.MIN_VALUE (any other value makes it buffer the whole result), while PostgreSQL rejects
+    // a negative fetch size and needs a positive one to use a cursor.
+    @Value("${booking.export.fetch-size:0}")
+    private int configuredFetchSize;
+
+    private int fetchSize;
+
+    public enum Format {
+        NDJSON,
+        CSV;
+
+        public static Format from(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unsupported export format: " + value + " (use ndjson or csv)");
+            }
+        }
+    }
+
+    @PostConstruct
+    void chooseFetchSize() {
+        if (configuredFetchSize != 0) {
+            fetchSize = configuredFetchSize;
+            return;
+        }
+        Dialect dialect = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect();
+        fetchSize = dialect instanceof MySQLDialect ? Integer.MIN_VALUE : DEFAULT_FETCH_SIZE;
+        log.debug("Booking export fetch size {} for {}", fetchSize, dialect.getClass().getSimpleName());
+    }
+
+    /**
+     * Writes all bookings to {@code out} and returns how many were written.
+     */
+    @Transactional(readOnly = true)
+    @Timed(value = "booking.export", histogram = true)
+    public long export(Format format, OutputStream out) throws IOException {
+        long count = 0;
+        try (Stream<BookingExportRow> rows = entityManager.createQuery(EXPORT_QUERY, BookingExportRow.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream()) {
+
+            if (format == Format.CSV) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+                for (BookingExportRow row : (Iterable<BookingExportRow>) rows::iterator) {
+                    writeCsv(writer, row);
+                    count++;
+                }
+                writer.flush();
+            } else {
+                OutputStream buffered = new BufferedOutputStream(out);
+                ObjectWriter json = objectMapper.writerFor(BookingExportRow.class);
+                for (BookingExportRow row : (Iterable<BookingExportRow>) rows::iterator) {
+                    buffered.write(json.writeValueAsBytes(row));
+                    buffered.write('\n');
+                    count++;
+                }
+                buffered.flush();
+            }
+        }
+        log.info("Exported {} bookings as {}", count, format);
+        return count;
+    }
+
+    private static void writeCsv(Writer writer, BookingExportRow row) throws IOException {
+        Object[] values = {
+                row.getId(), row.getCreatedAt(), row.getStatus(), row.getAmount(), row.getPaymentRef(),
+                row.getUserId(), row.getUserName(), row.getUserEmail(),
+                row.getScheduleId(), row.getTravelDate(), row.getDepartureTime(),
+                row.getOrigin(), row.getDestination(), row.getBusNumber()
+        };
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(csvField(values[i].toString()));
+            }
+        }
+        writer.write('\n');
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,186 @@
+package edu.cit.lgng.backend.service;
+
+import edu.cit.lgng.backend.model.Booking;
+import edu.cit.lgng.backend.model.Seat;
+import edu.cit.lgng.backend.repository.BookingRepository;
+import edu.cit.lgng.backend.repository.BookingSeatRepository;
+import edu.cit.lgng.backend.repository.ScheduleRepository;
+import edu.cit.lgng.backend.repository.SeatRepository;
+import edu.cit.lgng.backend.util.Transactions;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Releases seats held by PENDING bookings that were never paid.
+ *
+ * New bookings are put on a delay queue that fires {@code booking.hold.ttl} after {@code createdAt}.
+ * Expired holds are drained in batches, cancelled and their seats returned to AVAILABLE.
+ * A slower database sweep re-enqueues anything the in-memory queue missed, e.g. across restarts.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingHoldService {
+
+    private static final int STATS_MINUTES = 60;
+
+    private final BookingRepository bookingRepo;
+    private final BookingSeatRepository bookingSeatRepo;
+    private final SeatRepository seatRepo;
+    private final ScheduleRepository scheduleRepo;
+    private final SeatAvailabilityIndex seatIndex;
+    private final Optional<AvailableSeatCounter> seatCounter;
+    private final TransactionTemplate transactionTemplate;
+
+    private final DelayQueue<Hold> holds = new DelayQueue<>();
+    private final LongAdder releasedTotal = new LongAdder();
+    private final AtomicLongArray releasedByMinute = new AtomicLongArray(STATS_MINUTES);
+    private final AtomicLongArray minuteStamps = new AtomicLongArray(STATS_MINUTES);
+
+    @Value("${booking.hold.ttl:PT15M}")
+    private Duration ttl;
+
+    @Value("${booking.hold.batch-size:200}")
+    private int batchSize;
+
+    /**
+     * Starts the hold clock for a new booking once its transaction commits.
+     */
+    public void trackAfterCommit(Booking booking) {
+        Hold hold = new Hold(booking.getId(), booking.getSchedule().getId(), booking.getCreatedAt().plus(ttl));
+        Transactions.runAfterCommit(() -> holds.offer(hold));
+    }
+
+    @Scheduled(fixedDelayString = "${booking.hold.drain-interval-ms:5000}")
+    public void releaseExpired() {
+        List<Hold> batch = new ArrayList<>(batchSize);
+        while (holds.drainTo(batch, batchSize) > 0) {
+            try {
+                Integer released = transactionTemplate.execute(status -> releaseBatch(batch));
+                recordReleased(released != null ? released : 0);
+            } catch (Exception e) {
+                // The database sweep will pick these bookings up again
+                log.error("Failed to release {} expired booking holds", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${booking.hold.sweep-initial-delay-ms:30000}",
+               fixedDelayString = "${booking.hold.sweep-interval-ms:300000}")
+    public void sweepDatabase() {
+        Instant cutoff = Instant.now().minus(ttl);
+        List<BookingRepository.PendingHold> expired;
+        long releasedBefore;
+        do {
+            releasedBefore = releasedTotal.sum();
+            expired = bookingRepo.findPendingCreatedBefore(cutoff, PageRequest.of(0, batchSize));
+            for (BookingRepository.PendingHold pending : expired) {
+                holds.offer(new Hold(pending.getId(), pending.getScheduleId(), pending.getCreatedAt().plus(ttl)));
+            }
+            releaseExpired();
+            // Stop on a full page that made no progress instead of spinning on it
+        } while (expired.size() == batchSize && releasedTotal.sum() > releasedBefore);
+    }
+
+    public Map<String, Long> stats() {
+        long currentMinute = currentMinute();
+        long lastHour = 0;
+        for (int i = 0; i < STATS_MINUTES; i++) {
+            if (currentMinute - minuteStamps.get(i) < STATS_MINUTES) {
+                lastHour += releasedByMinute.get(i);
+            }
+        }
+        return Map.of(
+                "activeHolds", (long) holds.size(),
+                "releasedLastMinute", releasedIn(currentMinute - 1),
+                "releasedLastHour", lastHour,
+                "releasedTotal", releasedTotal.sum()
+        );
+    }
+
+    private int releaseBatch(List<Hold> batch) {
+        int released = 0;
+        for (Hold hold : batch) {
+            if (release(hold)) {
+                released++;
+            }
+        }
+        log.info("Released {} of {} expired booking holds", released, batch.size());
+        return released;
+    }
+
+    private boolean release(Hold hold) {
+        // Confirmed (or already cancelled) bookings are left alone
+        if (bookingRepo.cancelIfPending(hold.bookingId()) == 0) {
+            return false;
+        }
+        releaseSeats(hold.bookingId(), hold.scheduleId());
+        return true;
+    }
+
+    /**
+     * Returns a booking's RESERVED seats to AVAILABLE, within the caller's transaction.
+     */
+    public void releaseSeats(Long bookingId, Long scheduleId) {
+        List<String> seatNumbers = bookingSeatRepo.findSeatNumbersByBookingId(bookingId);
+        int freed = seatRepo.transitionStatus(scheduleId, seatNumbers, Seat.Status.RESERVED, Seat.Status.AVAILABLE);
+        if (freed > 0) {
+            scheduleRepo.incrementAvailableSeats(scheduleId, freed);
+            seatCounter.ifPresent(c -> c.addAfterCommit(scheduleId, freed));
+        }
+        seatIndex.transitionAfterCommit(scheduleId, seatNumbers, Seat.Status.RESERVED, Seat.Status.AVAILABLE);
+    }
+
+    private void recordReleased(int count) {
+        if (count == 0) {
+            return;
+        }
+        releasedTotal.add(count);
+        long minute = currentMinute();
+        int slot = (int) (minute % STATS_MINUTES);
+        long stamp = minuteStamps.get(slot);
+        if (stamp != minute && minuteStamps.compareAndSet(slot, stamp, minute)) {
+            releasedByMinute.set(slot, 0);
+        }
+        releasedByMinute.addAndGet(slot, count);
+    }
+
+    private long releasedIn(long minute) {
+        int slot = (int) (minute % STATS_MINUTES);
+        return minuteStamps.get(slot) == minute ? releasedByMinute.get(slot) : 0;
+    }
+
+    private static long currentMinute() {
+        return System.currentTimeMillis() / 60_000;
+    }
+
+    private record Hold(Long bookingId, Long scheduleId, Instant expiresAt) implements Delayed {
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(Instant.now(), expiresAt));
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return expiresAt.compareTo(((Hold) other).expiresAt);
+        }
+    }
+}
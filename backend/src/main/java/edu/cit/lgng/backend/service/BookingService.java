@@ -1,34 +1,91 @@
 package edu.cit.lgng.backend.service;
 
+import edu.cit.lgng.backend.dto.BookingHistoryPageDto;
+import edu.cit.lgng.backend.dto.BookingSummaryDto;
+import edu.cit.lgng.backend.exception.SeatConflictException;
+import edu.cit.lgng.backend.exception.SeatsNoLongerHeldException;
 import edu.cit.lgng.backend.model.*;
 import edu.cit.lgng.backend.repository.*;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.time.format.DateTimeFormatter;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BookingService {
+    private static final int MAX_HISTORY_PAGE_SIZE = 50;
+
     private final BookingRepository bookingRepo;
     private final UserRepository userRepo;
     private final ScheduleRepository scheduleRepo;
     private final SeatRepository seatRepo;
     private final BookingSeatRepository bookingSeatRepo;
-    private final ObjectMapper objectMapper;
+    private final SeatAvailabilityIndex seatIndex;
+    private final SeatContentionMetrics contentionMetrics;
+    private final Optional<AvailableSeatCounter> seatCounter;
+    private final BookingHoldService holdService;
+    private final TransactionTemplate transactionTemplate;
+    private final TicketCodec ticketCodec;
+
+    @Value("${booking.reservation.max-attempts:3}")
+    private int maxReservationAttempts;
 
-    @Transactional
+    /**
+     * Creates a PENDING booking and reserves its seats.
+     * Transient lock failures (deadlocks, lock wait timeouts) are retried a bounded number of times,
+     * while a seat that is already taken fails fast with a {@link SeatConflictException}.
+     */
+    @Timed(value = "booking.create", histogram = true)
     public Booking createBooking(Long userId, Long scheduleId, BigDecimal amount, List<String> seatNumbers) {
+        if (seatNumbers == null || seatNumbers.isEmpty()) {
+            throw new RuntimeException("Select at least one seat");
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> reserveBooking(userId, scheduleId, amount, seatNumbers));
+            } catch (SeatConflictException e) {
+                contentionMetrics.recordConflict(scheduleId);
+                throw e;
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxReservationAttempts) {
+                    contentionMetrics.recordConflict(scheduleId);
+                    log.warn("Giving up reserving seats {} on schedule {} after {} attempts", seatNumbers, scheduleId, attempt);
+                    throw new SeatConflictException(scheduleId, seatNumbers);
+                }
+                contentionMetrics.recordRetry(scheduleId);
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(5, 20L * attempt + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while reserving seats");
+        }
+    }
+
+    private Booking reserveBooking(Long userId, Long scheduleId, BigDecimal amount, List<String> seatNumbers) {
         User user = userRepo.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
         Schedule schedule = scheduleRepo.findById(scheduleId).orElseThrow(() -> new RuntimeException("Schedule not found"));
 
@@ -40,149 +97,211 @@ public class BookingService {
                 .build();
         Booking saved = bookingRepo.save(booking);
 
-        for(String sn : seatNumbers) {
-            Seat seat = seatRepo.findByScheduleId(scheduleId).stream()
-                    .filter(s -> s.getSeatNumber().equals(sn))
-                    .findFirst()
-                    .orElseThrow(() -> new RuntimeException("Seat not found: " + sn));
-
-            if(seat.getStatus() != Seat.Status.AVAILABLE) {
-                throw new RuntimeException("Seat not available: " + sn);
-            }
-            seat.setStatus(Seat.Status.RESERVED);
-            seatRepo.save(seat);
-
-            BookingSeat bs = BookingSeat.builder()
-                    .booking(saved)
-                    .schedule(schedule)
-                    .seatNumber(sn)
-                    .build();
-            bookingSeatRepo.save(bs);
+        // Reserve every requested seat in one statement; a short row count means a seat was missing or taken
+        List<String> requested = seatNumbers.stream().distinct().toList();
+        int reserved = seatRepo.transitionStatus(scheduleId, requested, Seat.Status.AVAILABLE, Seat.Status.RESERVED);
+        if(reserved != requested.size()) {
+            throw seatsUnavailable(scheduleId, requested);
         }
+        seatIndex.transitionAfterCommit(scheduleId, requested, Seat.Status.AVAILABLE, Seat.Status.RESERVED);
+
+        List<BookingSeat> bookingSeats = requested.stream()
+                .map(sn -> BookingSeat.builder()
+                        .booking(saved)
+                        .schedule(schedule)
+                        .seatNumber(sn)
+                        .build())
+                .toList();
+        bookingSeatRepo.saveAll(bookingSeats);
 
-        Integer avail = schedule.getAvailableSeats();
-        if(avail != null) {
-            schedule.setAvailableSeats(avail - seatNumbers.size());
-            scheduleRepo.save(schedule);
+        if (scheduleRepo.decrementAvailableSeats(scheduleId, requested.size()) == 0) {
+            throw counterUnderflow(scheduleId, requested.size(), new SeatConflictException(scheduleId, requested));
         }
+        seatCounter.ifPresent(c -> c.addAfterCommit(scheduleId, -requested.size()));
+        holdService.trackAfterCommit(saved);
 
         return saved;
     }
 
-    @Transactional
+    /**
+     * The seats table let a booking through but the schedule's availableSeats counter would go
+     * negative: the schedule is oversold or the counter was lowered by hand. Logged, counted, and
+     * returned for the caller to throw, so the transaction rolls back.
+     */
+    private RuntimeException counterUnderflow(Long scheduleId, int count, RuntimeException error) {
+        log.error("Schedule {}: availableSeats is below the {} seats being taken, rejecting the booking", scheduleId, count);
+        contentionMetrics.recordCounterUnderflow();
+        return error;
+    }
+
+    /**
+     * Builds the error for a failed seat reservation. Runs only on the failure path,
+     * where the surrounding transaction is about to roll back anyway.
+     */
+    private RuntimeException seatsUnavailable(Long scheduleId, List<String> requested) {
+        Set<String> existing = seatRepo.findByScheduleIdAndSeatNumberIn(scheduleId, requested).stream()
+                .map(Seat::getSeatNumber)
+                .collect(Collectors.toSet());
+        for(String sn : requested) {
+            if(!existing.contains(sn)) {
+                return new RuntimeException("Seat not found: " + sn);
+            }
+        }
+        return new SeatConflictException(scheduleId, requested);
+    }
+
+    /**
+     * Confirms a paid booking. If its seats were resold after the hold expired, the booking is
+     * left as REFUND_REQUIRED and a {@link SeatsNoLongerHeldException} is thrown.
+     */
+    @Timed(value = "booking.confirm", histogram = true)
     public Booking confirmBooking(Long bookingId, String providerRef, BigDecimal amount) {
-        Booking booking = bookingRepo.findById(bookingId).orElseThrow(() -> new RuntimeException("Booking not found"));
+        try {
+            return transactionTemplate.execute(status -> confirmLocked(bookingId, providerRef));
+        } catch (SeatsNoLongerHeldException e) {
+            // The confirmation rolled back, partial seat reclaim included; flag the booking on its own
+            transactionTemplate.executeWithoutResult(status -> markRefundRequired(bookingId));
+            throw e;
+        }
+    }
+
+    private Booking confirmLocked(Long bookingId, String providerRef) {
+        Booking booking = lockForConfirmation(bookingId);
         
         // Get seat numbers for this booking
-        List<BookingSeat> bookingSeats = bookingSeatRepo.findAll().stream()
-                .filter(bs -> bs.getBooking().getId().equals(bookingId))
-                .toList();
-        List<String> seatNumbers = bookingSeats.stream()
-                .map(BookingSeat::getSeatNumber)
-                .toList();
+        List<String> seatNumbers = bookingSeatRepo.findSeatNumbersByBookingId(bookingId);
 
         // Update seat status to OCCUPIED
-        for (String seatNumber : seatNumbers) {
-            Seat seat = seatRepo.findByScheduleId(booking.getSchedule().getId()).stream()
-                    .filter(s -> s.getSeatNumber().equals(seatNumber))
-                    .findFirst()
-                    .orElse(null);
-            if (seat != null) {
-                seat.setStatus(Seat.Status.OCCUPIED);
-                seatRepo.save(seat);
-            }
-        }
+        occupySeats(booking, seatNumbers);
 
         booking.setStatus(Booking.Status.CONFIRMED);
         booking.setPaymentRef(providerRef);
         
-        // Generate QR code with booking information
-        booking.setQrCodeText(generateQrCodeContent(booking, seatNumbers));
+        // Signed ticket token for the QR code, see TicketCodec
+        booking.setQrCodeText(ticketCodec.issue(booking.getId(), booking.getSchedule().getId(), seatNumbers));
         
         return bookingRepo.save(booking);
     }
 
     /**
-     * Generate QR code content with actual booking information
+     * Loads a booking about to be confirmed and locks its row for the rest of the transaction,
+     * so the hold expiry cannot cancel it between our status check and our write.
+     * Only PENDING bookings and CANCELLED ones (hold expired before payment) can be confirmed.
      */
-    private String generateQrCodeContent(Booking booking, List<String> seatNumbers) {
-        try {
-            ObjectNode qrData = objectMapper.createObjectNode();
-            
-            // Booking info
-            qrData.put("bookingId", "BM-" + String.format("%06d", booking.getId()));
-            qrData.put("status", booking.getStatus().name());
-            
-            // Passenger info
-            qrData.put("passenger", booking.getUser().getName());
-            qrData.put("email", booking.getUser().getEmail());
-            
-            // Route info
-            Schedule schedule = booking.getSchedule();
-            Route route = schedule.getRoute();
-            qrData.put("origin", route.getOrigin());
-            qrData.put("destination", route.getDestination());
-            qrData.put("route", route.getOrigin() + " → " + route.getDestination());
-            
-            // Schedule info
-            DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MMM dd, yyyy");
-            DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("hh:mm a");
-            
-            qrData.put("travelDate", schedule.getTravelDate().format(dateFormatter));
-            qrData.put("departureTime", schedule.getDepartureTime().format(timeFormatter));
-            qrData.put("arrivalTime", schedule.getArrivalTime().format(timeFormatter));
-            
-            // Bus info
-            if (schedule.getBus() != null) {
-                qrData.put("busNumber", schedule.getBus().getBusNumber());
-                qrData.put("plateNumber", schedule.getBus().getPlateNo());
-                if (schedule.getBus().getBusType() != null) {
-                    qrData.put("busType", schedule.getBus().getBusType().getName());
-                }
+    public Booking lockForConfirmation(Long bookingId) {
+        Booking booking = bookingRepo.findByIdForUpdate(bookingId)
+                .orElseThrow(() -> new RuntimeException("Booking not found"));
+        if (booking.getStatus() != Booking.Status.PENDING && booking.getStatus() != Booking.Status.CANCELLED) {
+            throw new RuntimeException("Booking " + bookingId + " is already " + booking.getStatus());
+        }
+        return booking;
+    }
+
+    /**
+     * Marks the seats of a paid booking OCCUPIED, within the caller's transaction.
+     * If the hold already expired the seats were handed back, so they are reclaimed
+     * from AVAILABLE when nobody else took them in the meantime.
+     *
+     * @throws SeatsNoLongerHeldException if not every seat could be taken; the caller must roll back,
+     *         which also undoes any seats reclaimed so far, and then call {@link #markRefundRequired}
+     */
+    public void occupySeats(Booking booking, List<String> seatNumbers) {
+        Long scheduleId = booking.getSchedule().getId();
+        boolean holdExpired = booking.getStatus() == Booking.Status.CANCELLED;
+        Seat.Status from = holdExpired ? Seat.Status.AVAILABLE : Seat.Status.RESERVED;
+
+        int occupied = seatRepo.transitionStatus(scheduleId, seatNumbers, from, Seat.Status.OCCUPIED);
+        if (occupied != seatNumbers.size()) {
+            log.warn("Booking {}: only {} of {} seats moved from {} to OCCUPIED",
+                    booking.getId(), occupied, seatNumbers.size(), from);
+            throw new SeatsNoLongerHeldException(booking.getId(), scheduleId, seatNumbers);
+        }
+        if (holdExpired && occupied > 0) {
+            if (scheduleRepo.decrementAvailableSeats(scheduleId, occupied) == 0) {
+                throw counterUnderflow(scheduleId, occupied,
+                        new SeatsNoLongerHeldException(booking.getId(), scheduleId, seatNumbers));
             }
-            
-            // Seat info
-            qrData.put("seats", String.join(", ", seatNumbers));
-            qrData.put("seatCount", seatNumbers.size());
-            
-            // Payment info
-            qrData.put("amount", "₱" + booking.getAmount().toString());
-            qrData.put("paymentRef", booking.getPaymentRef());
-            
-            // Verification code (for manual verification)
-            String verificationCode = generateVerificationCode(booking.getId());
-            qrData.put("verificationCode", verificationCode);
-            
-            return objectMapper.writeValueAsString(qrData);
-            
-        } catch (Exception e) {
-            // Fallback to simple format if JSON fails
-            return String.format("BM-%06d|%s|%s→%s|%s|%s|₱%s",
-                    booking.getId(),
-                    booking.getUser().getName(),
-                    booking.getSchedule().getRoute().getOrigin(),
-                    booking.getSchedule().getRoute().getDestination(),
-                    booking.getSchedule().getTravelDate(),
-                    String.join(",", seatNumbers),
-                    booking.getAmount()
-            );
+            seatCounter.ifPresent(c -> c.addAfterCommit(scheduleId, -occupied));
         }
+        seatIndex.transitionAfterCommit(scheduleId, seatNumbers, from, Seat.Status.OCCUPIED);
     }
 
     /**
-     * Generate a short verification code for manual checking
+     * Leaves a paid booking that could not get its seats as REFUND_REQUIRED, in the caller's transaction.
+     * A booking still PENDING gives its reserved seats back. Returns the booking.
      */
-    private String generateVerificationCode(Long bookingId) {
-        // Create a simple hash-based verification code
-        String base = "BM" + bookingId + System.currentTimeMillis();
-        int hash = Math.abs(base.hashCode());
-        return String.format("%06d", hash % 1000000);
+    public Booking markRefundRequired(Long bookingId) {
+        Booking booking = bookingRepo.findByIdForUpdate(bookingId)
+                .orElseThrow(() -> new RuntimeException("Booking not found"));
+        Booking.Status previous = booking.getStatus();
+        if (previous != Booking.Status.PENDING && previous != Booking.Status.CANCELLED) {
+            return booking;
+        }
+        if (previous == Booking.Status.PENDING) {
+            holdService.releaseSeats(bookingId, booking.getSchedule().getId());
+        }
+        booking.setStatus(Booking.Status.REFUND_REQUIRED);
+        log.error("Booking {} was paid but its seats are no longer available; marked REFUND_REQUIRED", bookingId);
+        return bookingRepo.save(booking);
     }
 
     public List<Booking> getUserBookings(Long userId) {
         return bookingRepo.findByUserId(userId);
     }
 
+    /**
+     * A user's bookings, newest first, one keyset page at a time.
+     * Two queries per page: the summary join, then the seat numbers of every booking on the page.
+     * Pass the returned {@code nextCursor} as {@code after} to get the following page.
+     */
+    public BookingHistoryPageDto getUserBookingHistory(Long userId, String after, int size) {
+        int limit = Math.min(Math.max(size, 1), MAX_HISTORY_PAGE_SIZE);
+        long beforeId = after != null && !after.isBlank() ? decodeCursor(after) : Long.MAX_VALUE;
+
+        List<BookingRepository.BookingSummary> rows =
+                bookingRepo.findSummariesByUserId(userId, beforeId, PageRequest.of(0, limit + 1));
+        boolean hasMore = rows.size() > limit;
+        List<BookingRepository.BookingSummary> page = hasMore ? rows.subList(0, limit) : rows;
+        if (page.isEmpty()) {
+            return new BookingHistoryPageDto(List.of(), null);
+        }
+
+        Map<Long, List<String>> seatsByBooking = bookingSeatRepo.findSeatNumbersByBookingIds(
+                        page.stream().map(BookingRepository.BookingSummary::getId).toList()).stream()
+                .collect(Collectors.groupingBy(BookingSeatRepository.SeatOfBooking::getBookingId,
+                        Collectors.mapping(BookingSeatRepository.SeatOfBooking::getSeatNumber, Collectors.toList())));
+
+        List<BookingSummaryDto> items = page.stream()
+                .map(b -> new BookingSummaryDto(b.getId(), b.getCreatedAt(), b.getStatus(), b.getAmount(),
+                        b.getScheduleId(), b.getTravelDate(), b.getDepartureTime(), b.getArrivalTime(),
+                        b.getOrigin(), b.getDestination(), b.getBusNumber(), b.getBusType(),
+                        seatsByBooking.getOrDefault(b.getId(), List.of())))
+                .toList();
+
+        String nextCursor = hasMore ? encodeCursor(items.get(items.size() - 1).getId()) : null;
+        return new BookingHistoryPageDto(items, nextCursor);
+    }
+
+    /**
+     * The owner and QR payload of one booking, loaded on its own so history pages do not carry it.
+     * The payload is null while the booking has no ticket yet; empty if there is no such booking.
+     */
+    public Optional<BookingRepository.BookingTicket> findTicket(Long bookingId) {
+        return bookingRepo.findTicketById(bookingId);
+    }
+
+    private static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decodeCursor(String cursor) {
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
     /**
      * Returns all bookings in the system.
      * Intended for admin / reporting use on the dashboard.
@@ -1,17 +1,16 @@
 package edu.cit.lgng.backend.service;
 
+import edu.cit.lgng.backend.config.CacheConfig;
 import edu.cit.lgng.backend.dto.BusCreateDto;
 import edu.cit.lgng.backend.model.Bus;
 import edu.cit.lgng.backend.model.BusType;
 import edu.cit.lgng.backend.repository.BusRepository;
 import edu.cit.lgng.backend.repository.BusTypeRepository;
 import edu.cit.lgng.backend.repository.ScheduleRepository;
-import edu.cit.lgng.backend.repository.SeatRepository;
-import edu.cit.lgng.backend.repository.BookingRepository;
-import edu.cit.lgng.backend.repository.BookingSeatRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -22,14 +21,14 @@ public class BusService {
     private final BusRepository busRepository;
     private final BusTypeRepository busTypeRepository;
     private final ScheduleRepository scheduleRepository;
-    private final SeatRepository seatRepository;
-    private final BookingRepository bookingRepository;
-    private final BookingSeatRepository bookingSeatRepository;
+    private final ScheduleCascadeDeleter cascadeDeleter;
 
+    @Cacheable(CacheConfig.BUSES)
     public List<Bus> all() {
         return busRepository.findAll();
     }
 
+    @CacheEvict(cacheNames = CacheConfig.BUSES, allEntries = true)
     public Bus create(BusCreateDto dto) {
 
         BusType busType = busTypeRepository.findById(dto.getBusTypeId())
@@ -45,6 +44,7 @@ public class BusService {
         return busRepository.save(bus);
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.BUSES, CacheConfig.SCHEDULES}, allEntries = true)
     public Bus update(Long id, BusCreateDto dto) {
         Bus bus = busRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Bus not found"));
@@ -60,26 +60,15 @@ public class BusService {
         return busRepository.save(bus);
     }
 
-    @Transactional
+    /**
+     * Deletes the bus with all its schedules, in chunks (see {@link ScheduleCascadeDeleter}).
+     */
+    @CacheEvict(cacheNames = {CacheConfig.BUSES, CacheConfig.SCHEDULES}, allEntries = true)
     public void delete(Long id) {
         Bus bus = busRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Bus not found"));
         
-        // Find all schedules for this bus
-        List<Long> scheduleIds = scheduleRepository.findByBusId(id)
-                .stream()
-                .map(schedule -> schedule.getId())
-                .toList();
-        
-        // Delete in order: booking_seats -> bookings -> seats -> schedules
-        for (Long scheduleId : scheduleIds) {
-            bookingSeatRepository.deleteByScheduleId(scheduleId);
-            bookingRepository.deleteByScheduleId(scheduleId);
-            seatRepository.deleteByScheduleId(scheduleId);
-        }
-        
-        // Delete schedules
-        scheduleRepository.deleteByBusId(id);
+        cascadeDeleter.deleteAll("bus " + id, chunk -> scheduleRepository.findIdsByBusId(id, chunk));
         
         // Now delete the bus
         busRepository.delete(bus);
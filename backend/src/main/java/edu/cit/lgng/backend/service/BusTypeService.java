@@ -1,15 +1,15 @@
 package edu.cit.lgng.backend.service;
 
+import edu.cit.lgng.backend.config.CacheConfig;
 import edu.cit.lgng.backend.model.BusType;
 import edu.cit.lgng.backend.repository.BusTypeRepository;
 import edu.cit.lgng.backend.repository.BusRepository;
 import edu.cit.lgng.backend.repository.ScheduleRepository;
-import edu.cit.lgng.backend.repository.SeatRepository;
-import edu.cit.lgng.backend.repository.BookingRepository;
-import edu.cit.lgng.backend.repository.BookingSeatRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 
@@ -19,18 +19,20 @@ public class BusTypeService {
     private final BusTypeRepository busTypeRepository;
     private final BusRepository busRepository;
     private final ScheduleRepository scheduleRepository;
-    private final SeatRepository seatRepository;
-    private final BookingRepository bookingRepository;
-    private final BookingSeatRepository bookingSeatRepository;
+    private final ScheduleCascadeDeleter cascadeDeleter;
+    private final TransactionTemplate transactionTemplate;
 
+    @Cacheable(CacheConfig.BUS_TYPES)
     public List<BusType> getAll() {
         return busTypeRepository.findAll();
     }
 
+    @CacheEvict(cacheNames = CacheConfig.BUS_TYPES, allEntries = true)
     public BusType create(BusType busType) {
         return busTypeRepository.save(busType);
     }
 
+    @CacheEvict(cacheNames = {CacheConfig.BUS_TYPES, CacheConfig.BUSES, CacheConfig.SCHEDULES}, allEntries = true)
     public BusType update(Long id, BusType busTypeData) {
         BusType existingType = busTypeRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Bus type not found"));
@@ -40,39 +42,21 @@ public class BusTypeService {
         return busTypeRepository.save(existingType);
     }
 
-    @Transactional
+    /**
+     * Deletes the bus type, its buses and all their schedules, in chunks (see {@link ScheduleCascadeDeleter}).
+     */
+    @CacheEvict(cacheNames = {CacheConfig.BUS_TYPES, CacheConfig.BUSES, CacheConfig.SCHEDULES}, allEntries = true)
     public void delete(Long id) {
         BusType busType = busTypeRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Bus type not found"));
         
-        // Find all buses of this type
-        List<Long> busIds = busRepository.findByBusTypeId(id)
-                .stream()
-                .map(bus -> bus.getId())
-                .toList();
+        // Schedules of every bus of this type, through one join instead of bus by bus
+        cascadeDeleter.deleteAll("bus type " + id, chunk -> scheduleRepository.findIdsByBusTypeId(id, chunk));
         
-        // For each bus, delete its schedules, seats, bookings and booking_seats
-        for (Long busId : busIds) {
-            List<Long> scheduleIds = scheduleRepository.findByBusId(busId)
-                    .stream()
-                    .map(schedule -> schedule.getId())
-                    .toList();
-            
-            // Delete in order: booking_seats -> bookings -> seats -> schedules
-            for (Long scheduleId : scheduleIds) {
-                bookingSeatRepository.deleteByScheduleId(scheduleId);
-                bookingRepository.deleteByScheduleId(scheduleId);
-                seatRepository.deleteByScheduleId(scheduleId);
-            }
-            
-            // Delete schedules for this bus
-            scheduleRepository.deleteByBusId(busId);
-        }
-        
-        // Delete all buses of this type
-        busRepository.deleteByBusTypeId(id);
-        
-        // Finally, delete the bus type
-        busTypeRepository.delete(busType);
+        // Then its buses and the bus type itself, together
+        transactionTemplate.executeWithoutResult(tx -> {
+            busRepository.deleteAllByBusTypeId(id);
+            busTypeRepository.delete(busType);
+        });
     }
 }
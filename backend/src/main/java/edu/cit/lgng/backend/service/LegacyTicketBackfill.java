@@ -0,0 +1,96 @@
+package edu.cit.lgng.backend.service;
+
+import edu.cit.lgng.backend.repository.BookingRepository;
+import edu.cit.lgng.backend.repository.BookingSeatRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Re-issues the QR payload of CONFIRMED bookings that still carry the JSON payload from before
+ * signed ticket tokens, so their codes match the boarding manifest and pass {@code /verify}.
+ *
+ * Runs once after startup, walking the bookings by id in chunks of {@code ticket.backfill.chunk-size},
+ * each in its own short transaction. Bookings that already have a token are never selected, so once
+ * everything is converted a restart costs one query.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LegacyTicketBackfill {
+    private final BookingRepository bookingRepo;
+    private final BookingSeatRepository bookingSeatRepo;
+    private final TicketCodec ticketCodec;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ticket.backfill.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ticket.backfill.chunk-size:500}")
+    private int chunkSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            backfill();
+        } catch (RuntimeException e) {
+            // Chunks already done stay done; the next start carries on from there
+            log.error("Legacy ticket backfill stopped", e);
+        }
+    }
+
+    /**
+     * Converts every legacy ticket and returns how many bookings were updated.
+     */
+    public long backfill() {
+        long updated = 0;
+        long afterId = 0;
+        List<BookingRepository.BookingState> chunk;
+        while (!(chunk = bookingRepo.findLegacyTickets(afterId, PageRequest.of(0, chunkSize))).isEmpty()) {
+            List<BookingRepository.BookingState> bookings = chunk;
+            Integer count = transactionTemplate.execute(tx -> reissue(bookings));
+            updated += count != null ? count : 0;
+            afterId = chunk.get(chunk.size() - 1).getId();
+            log.info("Legacy ticket backfill: {} bookings re-issued so far (up to booking {})", updated, afterId);
+        }
+        return updated;
+    }
+
+    private int reissue(List<BookingRepository.BookingState> bookings) {
+        Map<Long, List<String>> seatsByBooking = bookingSeatRepo.findSeatNumbersByBookingIds(
+                        bookings.stream().map(BookingRepository.BookingState::getId).toList()).stream()
+                .collect(Collectors.groupingBy(BookingSeatRepository.SeatOfBooking::getBookingId,
+                        Collectors.mapping(BookingSeatRepository.SeatOfBooking::getSeatNumber, Collectors.toList())));
+
+        int updated = 0;
+        for (BookingRepository.BookingState booking : bookings) {
+            List<String> seats = seatsByBooking.getOrDefault(booking.getId(), List.of());
+            String token;
+            try {
+                token = ticketCodec.issue(booking.getId(), booking.getScheduleId(), seats);
+            } catch (IllegalArgumentException e) {
+                // Seat numbers the token cannot encode; the manifest cannot list this booking either
+                log.warn("Booking {} keeps its old QR payload: {}", booking.getId(), e.getMessage());
+                meterRegistry.counter("ticket.backfill", "result", "skipped").increment();
+                continue;
+            }
+            updated += bookingRepo.updateConfirmedQrCodeText(booking.getId(), token);
+        }
+        meterRegistry.counter("ticket.backfill", "result", "reissued").increment(updated);
+        return updated;
+    }
+}
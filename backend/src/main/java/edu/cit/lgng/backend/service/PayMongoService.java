@@ -1,30 +1,27 @@
 package edu.cit.lgng.backend.service;
 
+import edu.cit.lgng.backend.config.CacheConfig;
 import edu.cit.lgng.backend.config.PayMongoConfig;
 import edu.cit.lgng.backend.dto.PayMongoDto.*;
+import edu.cit.lgng.backend.exception.SeatsNoLongerHeldException;
 import edu.cit.lgng.backend.model.Booking;
-import edu.cit.lgng.backend.model.BookingSeat;
 import edu.cit.lgng.backend.model.Payment;
-import edu.cit.lgng.backend.model.Route;
-import edu.cit.lgng.backend.model.Schedule;
-import edu.cit.lgng.backend.model.Seat;
 import edu.cit.lgng.backend.repository.BookingRepository;
 import edu.cit.lgng.backend.repository.BookingSeatRepository;
 import edu.cit.lgng.backend.repository.PaymentRepository;
-import edu.cit.lgng.backend.repository.SeatRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestTemplate;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-
 import java.math.BigDecimal;
 import java.time.Instant;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 
 @Service
@@ -37,14 +34,20 @@ public class PayMongoService {
     private final BookingRepository bookingRepository;
     private final PaymentRepository paymentRepository;
     private final BookingSeatRepository bookingSeatRepository;
-    private final SeatRepository seatRepository;
-    private final ObjectMapper objectMapper;
+    private final BookingService bookingService;
+    private final TicketCodec ticketCodec;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheManager cacheManager;
+    private final PaymentStatusTracker statusTracker;
 
     /**
      * Create a PayMongo Payment Intent from the backend
      * This should be called when user proceeds to payment
+     *
+     * Not transactional on purpose: the booking is read first, PayMongo is called with no
+     * database connection held, and only the payment reference is written afterwards.
      */
-    @Transactional
+    @Timed(value = "paymongo.intent.create", histogram = true)
     public PaymentIntentResponse createPaymentIntent(Long bookingId, String description) {
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new RuntimeException("Booking not found: " + bookingId));
@@ -99,9 +102,9 @@ public class PayMongoService {
             String clientKey = (String) responseAttributes.get("client_key");
             String status = (String) responseAttributes.get("status");
 
-            // Store the payment intent ID in the booking for later verification
-            booking.setPaymentRef(paymentIntentId);
-            bookingRepository.save(booking);
+            // Store the payment intent ID in the booking for later verification.
+            // A targeted update, so a hold expiring meanwhile is not overwritten by our stale copy
+            bookingRepository.updatePaymentRef(bookingId, paymentIntentId);
 
             log.info("Created PayMongo Payment Intent: {} for Booking: {}", paymentIntentId, bookingId);
 
@@ -125,6 +128,7 @@ public class PayMongoService {
     /**
      * Retrieve a Payment Intent status
      */
+    @Timed(value = "paymongo.intent.status", histogram = true)
     public PaymentStatusResponse getPaymentIntentStatus(String paymentIntentId) {
         HttpHeaders headers = new HttpHeaders();
         headers.set("Authorization", "Basic " + payMongoConfig.getEncodedSecretKey());
@@ -167,146 +171,146 @@ public class PayMongoService {
         }
     }
 
+    /**
+     * Payment Intent status for polling clients, served from {@link PaymentStatusTracker}.
+     * PayMongo is only asked when the short-lived entry is missing or expired.
+     */
+    public PaymentStatusResponse getCachedPaymentIntentStatus(String paymentIntentId) {
+        return statusTracker.get(paymentIntentId, this::getPaymentIntentStatus);
+    }
+
     /**
      * Handle successful payment - update booking and create payment record
+     *
+     * The PayMongo status check runs outside any transaction; the booking, seats and
+     * payment record are then written in one short transaction.
+     *
+     * Idempotent per intent: the verify endpoint and the webhook both end up here, and once an
+     * intent is settled, repeats return the stored result with no PayMongo call and no writes,
+     * including the {@link SeatsNoLongerHeldException} of a booking left for a refund.
+     *
+     * If the hold expired and some of the seats were resold before the payment arrived, the booking
+     * is never confirmed: the payment is recorded, the booking is left as REFUND_REQUIRED and a
+     * {@link SeatsNoLongerHeldException} is thrown.
      */
-    @Transactional
+    @Timed(value = "paymongo.payment.verify", histogram = true)
     public Booking handlePaymentSuccess(String paymentIntentId) {
+        Booking confirmed = findConfirmed(paymentIntentId);
+        if (confirmed != null) {
+            return replay(confirmed);
+        }
+
+        // Always asked fresh: confirmation must not trust a cached status
         PaymentStatusResponse status = getPaymentIntentStatus(paymentIntentId);
+        statusTracker.update(status);
         
-        if (!"succeeded".equals(status.getStatus())) {
+        if (!PaymentStatusTracker.SUCCEEDED.equals(status.getStatus())) {
             throw new RuntimeException("Payment not successful. Status: " + status.getStatus());
         }
 
-        Booking booking = bookingRepository.findById(status.getBookingId())
-                .orElseThrow(() -> new RuntimeException("Booking not found"));
+        try {
+            Booking booking = transactionTemplate.execute(tx -> confirmPaidBooking(status, paymentIntentId));
+            confirmedIntents().put(paymentIntentId, booking.getId());
+            return booking;
+        } catch (SeatsNoLongerHeldException e) {
+            // Everything above rolled back; record the payment for the refund in a transaction of its own
+            Booking booking = transactionTemplate.execute(tx -> recordRefundRequired(status, paymentIntentId));
+            confirmedIntents().put(paymentIntentId, booking.getId());
+            throw e;
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent confirmation of the same intent committed first; its transaction did the work
+            Booking stored = findConfirmed(paymentIntentId);
+            if (stored == null) {
+                throw e;
+            }
+            log.info("PaymentIntent {} was confirmed concurrently, returning stored booking {}", paymentIntentId, stored.getId());
+            return replay(stored);
+        }
+    }
 
-        // Get seat numbers for this booking
-        List<BookingSeat> bookingSeats = bookingSeatRepository.findAll().stream()
-                .filter(bs -> bs.getBooking().getId().equals(booking.getId()))
-                .toList();
-        List<String> seatNumbers = bookingSeats.stream()
-                .map(BookingSeat::getSeatNumber)
-                .toList();
+    /**
+     * The stored outcome of an intent that was already settled: the booking, or the same
+     * {@link SeatsNoLongerHeldException} the first confirmation threw if it was left for a refund.
+     */
+    private Booking replay(Booking settled) {
+        if (settled.getStatus() == Booking.Status.REFUND_REQUIRED) {
+            throw new SeatsNoLongerHeldException(settled.getId(), settled.getSchedule().getId(),
+                    bookingSeatRepository.findSeatNumbersByBookingId(settled.getId()));
+        }
+        return settled;
+    }
 
-        // Update seat status to OCCUPIED
-        for (String seatNumber : seatNumbers) {
-            Seat seat = seatRepository.findByScheduleId(booking.getSchedule().getId()).stream()
-                    .filter(s -> s.getSeatNumber().equals(seatNumber))
-                    .findFirst()
-                    .orElse(null);
-            if (seat != null) {
-                seat.setStatus(Seat.Status.OCCUPIED);
-                seatRepository.save(seat);
+    /**
+     * Returns the booking already settled by this intent (confirmed, or left for a refund), or null.
+     * Checks the recent-intent cache first, then the payments table.
+     */
+    private Booking findConfirmed(String paymentIntentId) {
+        Cache cache = confirmedIntents();
+        Long bookingId = cache.get(paymentIntentId, Long.class);
+        if (bookingId == null) {
+            bookingId = paymentRepository.findBookingIdByProviderRef(paymentIntentId).orElse(null);
+            if (bookingId == null) {
+                return null;
             }
+            cache.put(paymentIntentId, bookingId);
         }
+        return bookingRepository.findById(bookingId).orElse(null);
+    }
+
+    private Cache confirmedIntents() {
+        return cacheManager.getCache(CacheConfig.CONFIRMED_INTENTS);
+    }
+
+    private Booking confirmPaidBooking(PaymentStatusResponse status, String paymentIntentId) {
+        // Row lock: the hold expiry waits for us, or has already committed its cancellation
+        Booking booking = bookingService.lockForConfirmation(status.getBookingId());
+
+        // Claim the intent before touching seats: the unique provider_ref index rejects a second
+        // confirmation here, and this transaction rolls back without having written anything else
+        paymentRepository.saveAndFlush(successfulPayment(booking, paymentIntentId));
+
+        // Get seat numbers for this booking
+        List<String> seatNumbers = bookingSeatRepository.findSeatNumbersByBookingId(booking.getId());
+
+        // Update seat status to OCCUPIED
+        bookingService.occupySeats(booking, seatNumbers);
 
         // Update booking status
         booking.setStatus(Booking.Status.CONFIRMED);
         booking.setPaymentRef(status.getPaymentId() != null ? status.getPaymentId() : paymentIntentId);
         
-        // Generate QR code with actual booking information
-        booking.setQrCodeText(generateQrCodeContent(booking, seatNumbers));
+        // Signed ticket token for the QR code, see TicketCodec
+        booking.setQrCodeText(ticketCodec.issue(booking.getId(), booking.getSchedule().getId(), seatNumbers));
         
         bookingRepository.save(booking);
 
-        // Create payment record
-        Payment payment = Payment.builder()
-                .booking(booking)
-                .provider("PAYMONGO")
-                .providerRef(paymentIntentId)
-                .amount(booking.getAmount())
-                .status(Payment.Status.SUCCESS)
-                .receivedAt(Instant.now())
-                .build();
-        
-        paymentRepository.save(payment);
-
         log.info("Payment successful for Booking: {}, PaymentIntent: {}", booking.getId(), paymentIntentId);
 
         return booking;
     }
 
-    /**
-     * Generate QR code content with actual booking information
-     */
-    private String generateQrCodeContent(Booking booking, List<String> seatNumbers) {
-        try {
-            ObjectNode qrData = objectMapper.createObjectNode();
-            
-            // Booking info
-            qrData.put("bookingId", "BM-" + String.format("%06d", booking.getId()));
-            qrData.put("status", booking.getStatus().name());
-            
-            // Passenger info
-            qrData.put("passenger", booking.getUser().getName());
-            qrData.put("email", booking.getUser().getEmail());
-            
-            // Route info
-            Schedule schedule = booking.getSchedule();
-            Route route = schedule.getRoute();
-            qrData.put("origin", route.getOrigin());
-            qrData.put("destination", route.getDestination());
-            qrData.put("route", route.getOrigin() + " - " + route.getDestination());
-            
-            // Schedule info
-            DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("MMM dd, yyyy");
-            DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("hh:mm a");
-            
-            qrData.put("travelDate", schedule.getTravelDate().format(dateFormatter));
-            qrData.put("departureTime", schedule.getDepartureTime().format(timeFormatter));
-            qrData.put("arrivalTime", schedule.getArrivalTime().format(timeFormatter));
-            
-            // Bus info
-            if (schedule.getBus() != null) {
-                qrData.put("busNumber", schedule.getBus().getBusNumber());
-                qrData.put("plateNumber", schedule.getBus().getPlateNo());
-                if (schedule.getBus().getBusType() != null) {
-                    qrData.put("busType", schedule.getBus().getBusType().getName());
-                }
-            }
-            
-            // Seat info
-            qrData.put("seats", String.join(", ", seatNumbers));
-            qrData.put("seatCount", seatNumbers.size());
-            
-            // Payment info
-            qrData.put("amount", "PHP " + booking.getAmount().toString());
-            
-            // Verification code (for manual verification)
-            String verificationCode = generateVerificationCode(booking.getId());
-            qrData.put("verificationCode", verificationCode);
-            
-            return objectMapper.writeValueAsString(qrData);
-            
-        } catch (Exception e) {
-            log.error("Failed to generate QR code content", e);
-            // Fallback to simple format if JSON fails
-            return String.format("BM-%06d|%s|%s-%s|%s|%s|PHP%s",
-                    booking.getId(),
-                    booking.getUser().getName(),
-                    booking.getSchedule().getRoute().getOrigin(),
-                    booking.getSchedule().getRoute().getDestination(),
-                    booking.getSchedule().getTravelDate(),
-                    String.join(",", seatNumbers),
-                    booking.getAmount()
-            );
-        }
+    private Booking recordRefundRequired(PaymentStatusResponse status, String paymentIntentId) {
+        Booking booking = bookingService.markRefundRequired(status.getBookingId());
+        paymentRepository.saveAndFlush(successfulPayment(booking, paymentIntentId));
+        return booking;
     }
 
-    /**
-     * Generate a short verification code for manual checking
-     */
-    private String generateVerificationCode(Long bookingId) {
-        String base = "BM" + bookingId + System.currentTimeMillis();
-        int hash = Math.abs(base.hashCode());
-        return String.format("%06d", hash % 1000000);
+    private static Payment successfulPayment(Booking booking, String paymentIntentId) {
+        return Payment.builder()
+                .booking(booking)
+                .provider("PAYMONGO")
+                .providerRef(paymentIntentId)
+                .amount(booking.getAmount())
+                .status(Payment.Status.SUCCESS)
+                .receivedAt(Instant.now())
+                .build();
     }
 
     /**
      * Handle payment webhook events from PayMongo
+     * Called from {@link PayMongoWebhookInbox}; failures are thrown so the inbox can retry the event.
      */
-    @Transactional
+    @Timed(value = "paymongo.webhook", histogram = true)
     public void handleWebhookEvent(Map<String, Object> payload) {
         Map<String, Object> data = (Map<String, Object>) payload.get("data");
         Map<String, Object> attributes = (Map<String, Object>) data.get("attributes");
@@ -320,10 +324,13 @@ public class PayMongoService {
             
             String paymentIntentId = (String) paymentAttributes.get("payment_intent_id");
             if (paymentIntentId != null) {
+                // The event body is not trusted: long-polling clients are woken by handlePaymentSuccess,
+                // once PayMongo itself reports the intent as succeeded
                 try {
                     handlePaymentSuccess(paymentIntentId);
-                } catch (Exception e) {
-                    log.error("Failed to process payment.paid webhook for: {}", paymentIntentId, e);
+                } catch (SeatsNoLongerHeldException e) {
+                    // Settled as REFUND_REQUIRED; retrying the event would not change that
+                    log.warn("PaymentIntent {}: {}", paymentIntentId, e.getMessage());
                 }
             }
         } else if ("payment.failed".equals(eventType)) {
@@ -332,6 +339,13 @@ public class PayMongoService {
             
             String paymentIntentId = (String) paymentAttributes.get("payment_intent_id");
             log.warn("Payment failed for PaymentIntent: {}", paymentIntentId);
+            if (paymentIntentId != null) {
+                // PayMongo puts the intent back to awaiting a new payment method after a failed attempt
+                statusTracker.update(PaymentStatusResponse.builder()
+                        .paymentIntentId(paymentIntentId)
+                        .status("awaiting_payment_method")
+                        .build());
+            }
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,320 @@
+package edu.cit.lgng.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.cit.lgng.backend.exception.WebhookPayloadTooLargeException;
+import edu.cit.lgng.backend.model.WebhookEvent;
+import edu.cit.lgng.backend.repository.WebhookEventRepository;
+import edu.cit.lgng.backend.util.Hashing;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Durable inbox for PayMongo webhooks.
+ *
+ * {@link #accept} stores the raw event and returns, so the webhook is acknowledged without
+ * waiting on PayMongo or the confirmation transaction. Events are then handled by a fixed set
+ * of worker lanes with bounded queues; an event's lane is chosen from its ordering key
+ * (booking ID, else payment intent ID), so events for one booking run one at a time, in order.
+ * Each lane takes up to {@code batch-size} events at once, loads them in one query and marks the
+ * successful ones processed in one update.
+ *
+ * When an event fails and will be retried, its lane holds back every later event with the same
+ * ordering key (they stay RECEIVED) until the failed one succeeds or is given up on, so a retry
+ * never runs after its successors.
+ *
+ * When a lane is full the event just stays RECEIVED in the database, and the recovery job
+ * queues it again later, along with anything left over from a restart.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PayMongoWebhookInbox {
+
+    private final WebhookEventRepository eventRepo;
+    private final PayMongoService payMongoService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    private volatile boolean running;
+    private Lane[] lanes;
+
+    @Value("${paymongo.webhook.workers:4}")
+    private int workers;
+
+    @Value("${paymongo.webhook.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${paymongo.webhook.batch-size:50}")
+    private int batchSize;
+
+    @Value("${paymongo.webhook.max-attempts:5}")
+    private int maxAttempts;
+
+    // The endpoint is unauthenticated; anything bigger than a real PayMongo event is not stored
+    @Value("${paymongo.webhook.max-payload-bytes:65536}")
+    private int maxPayloadBytes;
+
+    // Events younger than this are assumed to still be on their way through a lane
+    @Value("${paymongo.webhook.recovery-delay:PT10S}")
+    private Duration recoveryDelay;
+
+    @PostConstruct
+    void start() {
+        running = true;
+        lanes = new Lane[Math.max(1, workers)];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(i);
+            lanes[i].thread.start();
+        }
+        Gauge.builder("paymongo.webhook.queue.size", this, inbox -> inbox.queued.size())
+                .description("Webhook events queued or being processed")
+                .register(meterRegistry);
+        Gauge.builder("paymongo.webhook.queue.capacity", () -> (double) lanes.length * queueCapacity)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        for (Lane lane : lanes) {
+            lane.thread.interrupt();
+        }
+        for (Lane lane : lanes) {
+            lane.thread.join(5_000);
+        }
+        // Whatever was still queued is RECEIVED in the database and is recovered on the next start
+    }
+
+    /**
+     * Stores a raw webhook body and queues it for processing.
+     * Redelivered events (same PayMongo event ID) are ignored.
+     *
+     * @throws WebhookPayloadTooLargeException if the body is over {@code max-payload-bytes}
+     */
+    public void accept(String body) throws JsonProcessingException {
+        int size = body.getBytes(StandardCharsets.UTF_8).length;
+        if (size > maxPayloadBytes) {
+            meterRegistry.counter("paymongo.webhook.received", "result", "too_large").increment();
+            throw new WebhookPayloadTooLargeException(size, maxPayloadBytes);
+        }
+        JsonNode data = objectMapper.readTree(body).path("data");
+        JsonNode attributes = data.path("attributes");
+        JsonNode resource = attributes.path("data").path("attributes");
+
+        String eventId = data.hasNonNull("id") ? data.get("id").asText() : "sha256:" + sha256(body);
+        String orderingKey = firstNonNull(
+                text(resource.path("metadata").path("booking_id")),
+                text(resource.path("payment_intent_id")),
+                eventId);
+
+        if (eventRepo.existsByEventId(eventId)) {
+            meterRegistry.counter("paymongo.webhook.received", "result", "duplicate").increment();
+            return;
+        }
+        WebhookEvent saved;
+        try {
+            saved = eventRepo.save(WebhookEvent.builder()
+                    .eventId(eventId)
+                    .eventType(text(attributes.path("type")))
+                    .orderingKey(orderingKey)
+                    .payload(body)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Same event delivered twice at the same moment
+            meterRegistry.counter("paymongo.webhook.received", "result", "duplicate").increment();
+            return;
+        }
+        meterRegistry.counter("paymongo.webhook.received", "result", "accepted").increment();
+        enqueue(saved.getId(), orderingKey);
+    }
+
+    /**
+     * Re-queues RECEIVED events that are not in a lane: deferred by backpressure,
+     * failed with attempts left, or left over from before a restart.
+     */
+    @Scheduled(initialDelayString = "${paymongo.webhook.recovery-initial-delay-ms:10000}",
+               fixedDelayString = "${paymongo.webhook.recovery-interval-ms:30000}")
+    public void recover() {
+        List<WebhookEvent> pending = eventRepo.findReceivedBefore(
+                Instant.now().minus(recoveryDelay), PageRequest.of(0, lanes.length * queueCapacity / 2));
+        int requeued = 0;
+        for (WebhookEvent event : pending) {
+            if (enqueue(event.getId(), event.getOrderingKey())) {
+                requeued++;
+            }
+        }
+        if (requeued > 0) {
+            log.info("Re-queued {} pending webhook events", requeued);
+        }
+    }
+
+    private boolean enqueue(Long id, String orderingKey) {
+        if (!queued.add(id)) {
+            return false;
+        }
+        String key = orderingKey != null ? orderingKey : id.toString();
+        Lane lane = lanes[Math.floorMod(key.hashCode(), lanes.length)];
+        if (!lane.queue.offer(id)) {
+            queued.remove(id);
+            meterRegistry.counter("paymongo.webhook.deferred").increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param blocked the lane's ordering keys that have a failed event waiting for a retry,
+     *                mapped to that event's ID
+     */
+    private void processBatch(List<Long> ids, Map<String, Long> blocked) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            List<WebhookEvent> events = new ArrayList<>(eventRepo.findAllById(ids));
+            events.sort(Comparator.comparing(WebhookEvent::getId));
+
+            List<Long> processed = new ArrayList<>(events.size());
+            for (WebhookEvent event : events) {
+                String key = event.getOrderingKey() != null ? event.getOrderingKey() : event.getId().toString();
+                if (event.getStatus() != WebhookEvent.Status.RECEIVED) {
+                    // Settled elsewhere (e.g. marked by hand); it no longer holds anything back
+                    blocked.remove(key, event.getId());
+                    continue;
+                }
+                Long waitingFor = blocked.get(key);
+                if (waitingFor != null && !waitingFor.equals(event.getId())) {
+                    // An earlier event for this key is still waiting for its retry; this one comes back
+                    // through recover() behind it
+                    meterRegistry.counter("paymongo.webhook.held").increment();
+                    continue;
+                }
+                Outcome outcome = process(event);
+                if (outcome == Outcome.RETRY) {
+                    blocked.put(key, event.getId());
+                } else {
+                    blocked.remove(key);
+                    if (outcome == Outcome.PROCESSED) {
+                        processed.add(event.getId());
+                    }
+                }
+            }
+            if (!processed.isEmpty()) {
+                transactionTemplate.executeWithoutResult(tx -> eventRepo.markProcessed(processed, Instant.now()));
+            }
+        } catch (Exception e) {
+            // Events stay RECEIVED and come back through recover()
+            log.error("Failed to process batch of {} webhook events", ids.size(), e);
+        } finally {
+            ids.forEach(queued::remove);
+            sample.stop(Timer.builder("paymongo.webhook.batch")
+                    .description("Time to process one batch of webhook events")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private enum Outcome {
+        PROCESSED,
+        RETRY,
+        FAILED
+    }
+
+    @SuppressWarnings("unchecked")
+    private Outcome process(WebhookEvent event) {
+        try {
+            payMongoService.handleWebhookEvent(objectMapper.readValue(event.getPayload(), Map.class));
+            Timer.builder("paymongo.webhook.lag")
+                    .description("Time from receiving a webhook event to finishing it")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(Duration.between(event.getReceivedAt(), Instant.now()));
+            return Outcome.PROCESSED;
+        } catch (Exception e) {
+            boolean giveUp = event.getAttempts() + 1 >= maxAttempts;
+            WebhookEvent.Status status = giveUp ? WebhookEvent.Status.FAILED : WebhookEvent.Status.RECEIVED;
+            String error = String.valueOf(e.getMessage());
+            transactionTemplate.executeWithoutResult(tx -> eventRepo.markFailedAttempt(
+                    event.getId(), status, error.length() > 500 ? error.substring(0, 500) : error));
+            meterRegistry.counter("paymongo.webhook.failures", "event", String.valueOf(event.getEventType())).increment();
+            if (giveUp) {
+                log.error("Giving up on webhook event {} ({}) after {} attempts", event.getEventId(), event.getEventType(), maxAttempts, e);
+            } else {
+                log.warn("Webhook event {} ({}) failed, will retry: {}", event.getEventId(), event.getEventType(), error);
+            }
+            return giveUp ? Outcome.FAILED : Outcome.RETRY;
+        }
+    }
+
+    private static String text(JsonNode node) {
+        return node.isMissingNode() || node.isNull() ? null : node.asText();
+    }
+
+    private static String firstNonNull(String... values) {
+        for (String value : values) {
+            if (value != null && !value.isBlank()) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static String sha256(String body) {
+        return HexFormat.of().formatHex(Hashing.sha256(body), 0, 24);
+    }
+
+    private final class Lane implements Runnable {
+        private final BlockingQueue<Long> queue = new LinkedBlockingQueue<>(queueCapacity);
+        // Only touched by this lane's thread: a key always hashes to the same lane
+        private final Map<String, Long> blocked = new HashMap<>();
+        private final Thread thread;
+
+        Lane(int index) {
+            this.thread = new Thread(this, "paymongo-webhook-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<Long> batch = new ArrayList<>(batchSize);
+            while (running) {
+                try {
+                    Long first = queue.poll(1, TimeUnit.SECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    processBatch(batch, blocked);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+}
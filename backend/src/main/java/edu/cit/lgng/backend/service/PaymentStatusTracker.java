@@ -0,0 +1,103 @@
+package edu.cit.lgng.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import edu.cit.lgng.backend.dto.PayMongoDto.PaymentStatusResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Local view of PayMongo payment intent statuses, so polling clients do not each hit the gateway.
+ *
+ * Statuses are cached briefly; concurrent misses for the same intent share one PayMongo call.
+ * Statuses fetched from PayMongo during confirmation, and failed-payment webhooks, overwrite the
+ * entry in place and wake any long-poll requests waiting on that intent. Succeeded is only ever
+ * recorded from PayMongo's own answer, never from a webhook body. A succeeded intent never
+ * changes again, so it is kept for longer.
+ */
+@Component
+public class PaymentStatusTracker {
+
+    public static final String SUCCEEDED = "succeeded";
+
+    private final Cache<String, PaymentStatusResponse> statuses;
+    private final Map<String, Set<DeferredResult<PaymentStatusResponse>>> waiters = new ConcurrentHashMap<>();
+
+    public PaymentStatusTracker(@Value("${paymongo.status-cache.ttl:PT5S}") Duration ttl,
+                                @Value("${paymongo.status-cache.succeeded-ttl:PT10M}") Duration succeededTtl,
+                                @Value("${paymongo.status-cache.max-size:10000}") long maxSize) {
+        this.statuses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, PaymentStatusResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, PaymentStatusResponse value, long currentTime) {
+                        return (SUCCEEDED.equals(value.getStatus()) ? succeededTtl : ttl).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, PaymentStatusResponse value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, PaymentStatusResponse value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Returns the cached status, loading it with {@code loader} on a miss.
+     */
+    public PaymentStatusResponse get(String paymentIntentId, Function<String, PaymentStatusResponse> loader) {
+        return statuses.get(paymentIntentId, loader);
+    }
+
+    /**
+     * Records a status learned from PayMongo or a webhook and wakes waiting clients.
+     * Fields the update does not carry (e.g. bookingId from a webhook) are kept from the cached entry.
+     */
+    public void update(PaymentStatusResponse status) {
+        String id = status.getPaymentIntentId();
+        PaymentStatusResponse merged = statuses.asMap().merge(id, status, (old, fresh) -> PaymentStatusResponse.builder()
+                .paymentIntentId(id)
+                .status(fresh.getStatus())
+                .amount(fresh.getAmount() != null ? fresh.getAmount() : old.getAmount())
+                .paymentId(fresh.getPaymentId() != null ? fresh.getPaymentId() : old.getPaymentId())
+                .bookingId(fresh.getBookingId() != null ? fresh.getBookingId() : old.getBookingId())
+                .build());
+
+        Set<DeferredResult<PaymentStatusResponse>> waiting = waiters.remove(id);
+        if (waiting != null) {
+            waiting.forEach(result -> result.setResult(merged));
+        }
+    }
+
+    /**
+     * Completes {@code result} once the intent's status differs from {@code knownStatus}.
+     * The caller sets the timeout behaviour on the DeferredResult.
+     */
+    public void await(String paymentIntentId, String knownStatus, DeferredResult<PaymentStatusResponse> result) {
+        waiters.computeIfAbsent(paymentIntentId, id -> ConcurrentHashMap.newKeySet()).add(result);
+        result.onCompletion(() -> waiters.computeIfPresent(paymentIntentId, (id, set) -> {
+            set.remove(result);
+            return set.isEmpty() ? null : set;
+        }));
+
+        // Re-check after registering, so an update that landed in between is not missed
+        PaymentStatusResponse current = statuses.getIfPresent(paymentIntentId);
+        if (current != null && !Objects.equals(current.getStatus(), knownStatus)) {
+            result.setResult(current);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package edu.cit.lgng.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.client.j2se.MatrixToImageWriter;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import edu.cit.lgng.backend.util.Hashing;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Renders QR codes with ZXing as PNG or SVG.
+ *
+ * Rendered images are kept in a size-bounded cache keyed by the content hash, format and size,
+ * so showing the same ticket again costs a map lookup instead of an encode.
+ */
+@Service
+public class QrCodeRenderer {
+
+    public enum Format {
+        PNG("image/png"),
+        SVG("image/svg+xml");
+
+        private final String mediaType;
+
+        Format(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public String mediaType() {
+            return mediaType;
+        }
+
+        public static Format from(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unsupported QR format: " + value + " (use png or svg)");
+            }
+        }
+    }
+
+    private record Key(String hash, Format format, int size) {
+    }
+
+    private final Cache<Key, byte[]> images;
+    private final int minSize;
+    private final int maxSize;
+    private final int margin;
+
+    public QrCodeRenderer(@Value("${qr.cache.max-bytes:16777216}") long maxCacheBytes,
+                          @Value("${qr.size.min:64}") int minSize,
+                          @Value("${qr.size.max:1024}") int maxSize,
+                          @Value("${qr.margin:2}") int margin,
+                          MeterRegistry meterRegistry) {
+        this.images = Caffeine.newBuilder()
+                .maximumWeight(maxCacheBytes)
+                .weigher((Key key, byte[] bytes) -> bytes.length)
+                .recordStats()
+                .build();
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.margin = margin;
+        CaffeineCacheMetrics.monitor(meterRegistry, images, "qrImages");
+    }
+
+    /**
+     * Hex SHA-256 prefix of the QR content, used in image URLs and ETags.
+     */
+    public static String contentHash(String content) {
+        return HexFormat.of().formatHex(Hashing.sha256(content), 0, 16);
+    }
+
+    /**
+     * Clamps a requested image size (pixels per side) to the configured bounds.
+     */
+    public int clampSize(int size) {
+        return Math.min(Math.max(size, minSize), maxSize);
+    }
+
+    /**
+     * Returns the image for {@code content}, rendering it only on a cache miss.
+     * {@code size} should already be clamped.
+     */
+    public byte[] render(String content, Format format, int size) {
+        return images.get(new Key(contentHash(content), format, size), key -> encode(content, format, size));
+    }
+
+    private byte[] encode(String content, Format format, int size) {
+        Map<EncodeHintType, Object> hints = Map.of(
+                EncodeHintType.CHARACTER_SET, StandardCharsets.UTF_8.name(),
+                EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.M,
+                EncodeHintType.MARGIN, margin);
+        try {
+            if (format == Format.SVG) {
+                // One unit per module; the SVG scales itself to the requested size
+                return toSvg(new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, 0, 0, hints), size);
+            }
+            BitMatrix matrix = new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, size, size, hints);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            MatrixToImageWriter.writeToStream(matrix, "PNG", out);
+            return out.toByteArray();
+        } catch (WriterException e) {
+            throw new RuntimeException("Failed to render QR code: " + e.getMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] toSvg(BitMatrix matrix, int size) {
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        StringBuilder path = new StringBuilder(width * height);
+        for (int y = 0; y < height; y++) {
+            int x = 0;
+            while (x < width) {
+                if (!matrix.get(x, y)) {
+                    x++;
+                    continue;
+                }
+                // One horizontal run of dark modules per path segment
+                int start = x;
+                while (x < width && matrix.get(x, y)) {
+                    x++;
+                }
+                path.append('M').append(start).append(' ').append(y)
+                        .append('h').append(x - start).append("v1h-").append(x - start).append('z');
+            }
+        }
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + size + "\" height=\"" + size + "\" " +
+                "viewBox=\"0 0 " + width + " " + height + "\" shape-rendering=\"crispEdges\">" +
+                "<rect width=\"100%\" height=\"100%\" fill=\"#fff\"/>" +
+                "<path fill=\"#000\" d=\"" + path + "\"/></svg>";
+        return svg.getBytes(StandardCharsets.UTF_8);
+    }
+}
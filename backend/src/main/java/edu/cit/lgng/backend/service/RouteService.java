@@ -1,14 +1,13 @@
 package edu.cit.lgng.backend.service;
 
+import edu.cit.lgng.backend.config.CacheConfig;
 import edu.cit.lgng.backend.model.Route;
 import edu.cit.lgng.backend.repository.RouteRepository;
 import edu.cit.lgng.backend.repository.ScheduleRepository;
-import edu.cit.lgng.backend.repository.SeatRepository;
-import edu.cit.lgng.backend.repository.BookingRepository;
-import edu.cit.lgng.backend.repository.BookingSeatRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -18,12 +17,15 @@ import java.util.List;
 public class RouteService {
     private final RouteRepository repo;
     private final ScheduleRepository scheduleRepository;
-    private final SeatRepository seatRepository;
-    private final BookingRepository bookingRepository;
-    private final BookingSeatRepository bookingSeatRepository;
+    private final ScheduleCascadeDeleter cascadeDeleter;
+
+    @Cacheable(CacheConfig.ROUTES)
     public List<Route> listAll(){return repo.findAll();}
+
+    @CacheEvict(cacheNames = CacheConfig.ROUTES, allEntries = true)
     public Route create(Route r){return repo.save(r);}
 
+    @CacheEvict(cacheNames = {CacheConfig.ROUTES, CacheConfig.SCHEDULES}, allEntries = true)
     public Route update(Long id, Route routeData) {
         Route route = repo.findById(id)
                 .orElseThrow(() -> new RuntimeException("Route not found"));
@@ -34,26 +36,15 @@ public class RouteService {
         return repo.save(route);
     }
 
-    @Transactional
+    /**
+     * Deletes the route with all its schedules, in chunks (see {@link ScheduleCascadeDeleter}).
+     */
+    @CacheEvict(cacheNames = {CacheConfig.ROUTES, CacheConfig.SCHEDULES}, allEntries = true)
     public void delete(Long id) {
         Route route = repo.findById(id)
                 .orElseThrow(() -> new RuntimeException("Route not found"));
         
-        // Find all schedules for this route
-        List<Long> scheduleIds = scheduleRepository.findByRouteId(id)
-                .stream()
-                .map(schedule -> schedule.getId())
-                .toList();
-        
-        // Delete in order: booking_seats -> bookings -> seats -> schedules
-        for (Long scheduleId : scheduleIds) {
-            bookingSeatRepository.deleteByScheduleId(scheduleId);
-            bookingRepository.deleteByScheduleId(scheduleId);
-            seatRepository.deleteByScheduleId(scheduleId);
-        }
-        
-        // Delete schedules
-        scheduleRepository.deleteByRouteId(id);
+        cascadeDeleter.deleteAll("route " + id, chunk -> scheduleRepository.findIdsByRouteId(id, chunk));
         
         // Now delete the route
         repo.delete(route);
@@ -0,0 +1,125 @@
+package edu.cit.lgng.backend.service;
+
+import edu.cit.lgng.backend.config.CacheConfig;
+import edu.cit.lgng.backend.repository.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Deletes schedules together with everything hanging off them, with set-based deletes.
+ *
+ * Schedule IDs are taken in chunks of {@code schedule.cascade-delete.chunk-size}. Each chunk is
+ * removed in its own short transaction with one bulk DELETE per table (payments, check-ins,
+ * booking seats, bookings, seats, schedules), so locks are only held for one chunk at a time.
+ * Progress is logged after every chunk, and the in-memory seat map, seat counter and ticket
+ * manifest of each deleted schedule are dropped. If a delete fails halfway, the chunks already
+ * done stay deleted and the parent row is left in place, so repeating the delete picks up where
+ * it stopped.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScheduleCascadeDeleter {
+    private final ScheduleRepository scheduleRepository;
+    private final SeatRepository seatRepository;
+    private final BookingRepository bookingRepository;
+    private final BookingSeatRepository bookingSeatRepository;
+    private final PaymentRepository paymentRepository;
+    private final TicketCheckInRepository checkInRepository;
+    private final SeatAvailabilityIndex seatIndex;
+    private final Optional<AvailableSeatCounter> seatCounter;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${schedule.cascade-delete.chunk-size:200}")
+    private int chunkSize;
+
+    public record Result(long schedules, long bookings, long seats) {
+    }
+
+    /**
+     * Deletes every schedule returned by {@code nextChunk} until it returns none.
+     * {@code nextChunk} is always asked for the first page: the previous chunk is gone by then.
+     * Stops early if a chunk deletes nothing, since asking again would return the same IDs.
+     *
+     * @param owner what is being deleted, for the progress log (e.g. "route 12")
+     */
+    public Result deleteAll(String owner, Function<Pageable, List<Long>> nextChunk) {
+        long schedules = 0;
+        long bookings = 0;
+        long seats = 0;
+        long started = System.nanoTime();
+
+        List<Long> ids;
+        while (!(ids = nextChunk.apply(PageRequest.of(0, chunkSize))).isEmpty()) {
+            List<Long> chunk = ids;
+            int[] counts = transactionTemplate.execute(tx -> deleteChunk(chunk));
+            forget(chunk);
+            if (counts[0] == 0) {
+                log.warn("Deleting {}: chunk of {} schedules deleted nothing, stopping", owner, chunk.size());
+                break;
+            }
+
+            schedules += counts[0];
+            bookings += counts[1];
+            seats += counts[2];
+            log.info("Deleting {}: {} schedules, {} bookings, {} seats removed so far ({} ms)",
+                    owner, schedules, bookings, seats, (System.nanoTime() - started) / 1_000_000);
+        }
+        return new Result(schedules, bookings, seats);
+    }
+
+    /**
+     * Deletes the given schedules and their dependents in the caller's transaction.
+     * Returns {schedules, bookings, seats} deleted.
+     */
+    public int[] deleteChunk(Collection<Long> scheduleIds) {
+        // Children first: payments -> check-ins -> booking_seats -> bookings -> seats -> schedules
+        int payments = paymentRepository.deleteByScheduleIds(scheduleIds);
+        int checkIns = checkInRepository.deleteByScheduleIds(scheduleIds);
+        int bookingSeats = bookingSeatRepository.deleteByScheduleIds(scheduleIds);
+        int bookings = bookingRepository.deleteByScheduleIds(scheduleIds);
+        int seats = seatRepository.deleteByScheduleIds(scheduleIds);
+        int schedules = scheduleRepository.deleteAllByIds(scheduleIds);
+
+        count("payments", payments);
+        count("ticket_check_ins", checkIns);
+        count("booking_seats", bookingSeats);
+        count("bookings", bookings);
+        count("seats", seats);
+        count("schedules", schedules);
+        return new int[]{schedules, bookings, seats};
+    }
+
+    /**
+     * Drops everything kept in memory for the given schedules. Call once they are deleted.
+     */
+    public void forget(Collection<Long> scheduleIds) {
+        Cache manifests = cacheManager.getCache(CacheConfig.TICKET_MANIFESTS);
+        for (Long scheduleId : scheduleIds) {
+            seatIndex.invalidate(scheduleId);
+            seatCounter.ifPresent(counter -> counter.remove(scheduleId));
+            if (manifests != null) {
+                manifests.evict(scheduleId);
+            }
+        }
+    }
+
+    private void count(String table, int rows) {
+        meterRegistry.counter("schedule.cascade.deleted.rows", "table", table).increment(rows);
+    }
+}
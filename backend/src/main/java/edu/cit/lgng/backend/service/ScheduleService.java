@@ -1,27 +1,128 @@
 package edu.cit.lgng.backend.service;
 
+import edu.cit.lgng.backend.config.CacheConfig;
+import edu.cit.lgng.backend.dto.RouteScheduleStatsDto;
+import edu.cit.lgng.backend.dto.SchedulePageDto;
 import edu.cit.lgng.backend.model.Schedule;
 import edu.cit.lgng.backend.repository.ScheduleRepository;
-import edu.cit.lgng.backend.repository.SeatRepository;
-import edu.cit.lgng.backend.repository.BookingRepository;
-import edu.cit.lgng.backend.repository.BookingSeatRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Base64;
 import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
 
 // service/ScheduleService.java
 @Service
 @RequiredArgsConstructor
 public class ScheduleService {
     private final ScheduleRepository repo;
-    private final SeatRepository seatRepository;
-    private final BookingRepository bookingRepository;
-    private final BookingSeatRepository bookingSeatRepository;
-    public List<Schedule> all(){return repo.findAll();}
+    private final Optional<AvailableSeatCounter> seatCounter;
+    private final RouteService routeService;
+    private final ScheduleCascadeDeleter cascadeDeleter;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    public List<Schedule> all(){
+        return withLiveSeatCounts(repo.findAllCached());
+    }
+
+    /**
+     * Totals per route over all schedules, for aggregate views that should not page through the timetable.
+     */
+    public List<RouteScheduleStatsDto> routeStats() {
+        return repo.findRouteStats();
+    }
+
+    /**
+     * Searches schedules by route and travel date range, sorted by departure, one keyset page at a time.
+     * Pass the returned {@code nextCursor} as {@code after} to get the following page.
+     */
+    public SchedulePageDto search(String origin, String destination, Long routeId,
+                                  LocalDate from, LocalDate to, String after, int size) {
+        LocalDate start = from != null ? from : LocalDate.now();
+        LocalDate end = to != null ? to : start.plusYears(1);
+        int limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        // Routes are few and cached, so resolve the route filter in memory and query by route_id
+        List<Long> routeIds = routeService.listAll().stream()
+                .filter(r -> routeId == null || routeId.equals(r.getId()))
+                .filter(r -> origin == null || origin.isBlank() || origin.trim().equalsIgnoreCase(r.getOrigin()))
+                .filter(r -> destination == null || destination.isBlank() || destination.trim().equalsIgnoreCase(r.getDestination()))
+                .map(r -> r.getId())
+                .toList();
+        if (routeIds.isEmpty()) {
+            return new SchedulePageDto(List.of(), null);
+        }
+
+        Cursor cursor = after != null && !after.isBlank()
+                ? decodeCursor(after)
+                : new Cursor(start.minusDays(1), LocalTime.MIN, 0);
+
+        List<Schedule> rows = repo.searchPage(routeIds, start, end, cursor.travelDate(), cursor.departureTime(), cursor.id(),
+                PageRequest.of(0, limit + 1));
+        boolean hasMore = rows.size() > limit;
+        List<Schedule> items = withLiveSeatCounts(hasMore ? rows.subList(0, limit) : rows);
+
+        String nextCursor = null;
+        if (hasMore) {
+            Schedule last = items.get(items.size() - 1);
+            nextCursor = encodeCursor(last.getTravelDate() + "|" + last.getDepartureTime() + "|" + last.getId());
+        }
+        return new SchedulePageDto(items, nextCursor);
+    }
+
+    /**
+     * Overlays the live seat counts on copies of the schedules. The originals are never changed:
+     * they may be shared cache entries or managed entities.
+     */
+    private List<Schedule> withLiveSeatCounts(List<Schedule> schedules) {
+        if (seatCounter.isEmpty()) {
+            return schedules;
+        }
+        AvailableSeatCounter counter = seatCounter.get();
+        return schedules.stream()
+                .map(s -> {
+                    OptionalInt live = counter.get(s.getId());
+                    return live.isPresent() ? s.toBuilder().availableSeats(live.getAsInt()).build() : s;
+                })
+                .toList();
+    }
+
+    private static String encodeCursor(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException();
+            }
+            return new Cursor(LocalDate.parse(parts[0]), LocalTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Position of the last schedule on the previous page, in search order.
+     */
+    private record Cursor(LocalDate travelDate, LocalTime departureTime, long id) {
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.SCHEDULES, allEntries = true)
     public Schedule create(Schedule s){return repo.save(s);}
 
+    @CacheEvict(cacheNames = CacheConfig.SCHEDULES, allEntries = true)
     public Schedule update(Long id, Schedule scheduleData) {
         Schedule schedule = repo.findById(id)
                 .orElseThrow(() -> new RuntimeException("Schedule not found"));
@@ -35,17 +136,15 @@ public class ScheduleService {
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.SCHEDULES, allEntries = true)
     public void delete(Long id) {
-        Schedule schedule = repo.findById(id)
-                .orElseThrow(() -> new RuntimeException("Schedule not found"));
-        
-        // Delete in order: booking_seats -> bookings -> seats -> schedule
-        bookingSeatRepository.deleteByScheduleId(id);
-        bookingRepository.deleteByScheduleId(id);
-        seatRepository.deleteByScheduleId(id);
+        if (!repo.existsById(id)) {
+            throw new RuntimeException("Schedule not found");
+        }
         
-        // Now delete the schedule
-        repo.delete(schedule);
+        // Payments, check-ins, booking seats, bookings, seats, then the schedule itself
+        cascadeDeleter.deleteChunk(List.of(id));
+        cascadeDeleter.forget(List.of(id));
     }
 }
 
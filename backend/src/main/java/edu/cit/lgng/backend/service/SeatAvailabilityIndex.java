@@ -0,0 +1,283 @@
+package edu.cit.lgng.backend.service;
+
+import edu.cit.lgng.backend.model.Seat;
+import edu.cit.lgng.backend.repository.SeatRepository;
+import edu.cit.lgng.backend.util.Transactions;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory seat map per schedule, used to serve seat-map reads without hitting the database.
+ *
+ * Each schedule keeps its seat layout once and packs the seat statuses into a bitset
+ * (2 bits per seat, slot = rowIndex * width + colIndex). Status changes are applied with
+ * CAS after the owning transaction commits, and a periodic job reconciles every loaded
+ * map against the seats table so the index can never drift for long.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SeatAvailabilityIndex {
+
+    private static final int BITS_PER_SEAT = 2;
+    private static final int SEATS_PER_WORD = Long.SIZE / BITS_PER_SEAT;
+    private static final long STATUS_MASK = (1L << BITS_PER_SEAT) - 1;
+    private static final Seat.Status[] STATUSES = Seat.Status.values();
+
+    private final SeatRepository seatRepo;
+    private final Map<Long, SeatMap> maps = new ConcurrentHashMap<>();
+
+    @Value("${seats.index.idle-ttl-ms:1800000}")
+    private long idleTtlMs;
+
+    /**
+     * Returns the seats of a schedule with their current status.
+     * The first read of a schedule loads it from the database; later reads are memory lookups.
+     */
+    public List<Seat> getSeats(Long scheduleId) {
+        SeatMap map = maps.get(scheduleId);
+        if (map == null) {
+            map = load(scheduleId);
+            if (map == null) {
+                return List.of();
+            }
+        }
+        return map.snapshot();
+    }
+
+    /**
+     * Applies a status transition once the current transaction commits, or immediately
+     * when called outside a transaction. Rolled back transactions never touch the index.
+     */
+    public void transitionAfterCommit(Long scheduleId, Collection<String> seatNumbers, Seat.Status from, Seat.Status to) {
+        Transactions.runAfterCommit(() -> transition(scheduleId, seatNumbers, from, to));
+    }
+
+    /**
+     * Moves the given seats from one status to another with CAS.
+     * If any seat is not in the expected state the map has drifted from the database,
+     * so it is dropped and reloaded on the next read.
+     */
+    public int transition(Long scheduleId, Collection<String> seatNumbers, Seat.Status from, Seat.Status to) {
+        SeatMap map = maps.get(scheduleId);
+        if (map == null) {
+            return 0;
+        }
+        int moved = 0;
+        for (String seatNumber : seatNumbers) {
+            if (map.compareAndSet(seatNumber, from, to)) {
+                moved++;
+            }
+        }
+        if (moved != seatNumbers.size()) {
+            log.warn("Seat index for schedule {} drifted ({} of {} seats moved {} -> {}), reloading",
+                    scheduleId, moved, seatNumbers.size(), from, to);
+            maps.remove(scheduleId, map);
+        }
+        return moved;
+    }
+
+    public void invalidate(Long scheduleId) {
+        maps.remove(scheduleId);
+    }
+
+    /**
+     * Re-reads the seats table for every loaded schedule and corrects any drift.
+     * Schedules that have not been read for a while are dropped instead.
+     */
+    @Scheduled(fixedDelayString = "${seats.index.reconcile-interval-ms:30000}")
+    public void reconcile() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, SeatMap> entry : maps.entrySet()) {
+            Long scheduleId = entry.getKey();
+            SeatMap map = entry.getValue();
+
+            if (now - map.lastReadAt > idleTtlMs) {
+                maps.remove(scheduleId, map);
+                continue;
+            }
+
+            long version = map.version.get();
+            List<Seat> seats = seatRepo.findByScheduleId(scheduleId);
+            if (seats.isEmpty()) {
+                maps.remove(scheduleId, map);
+            } else if (!map.hasLayoutOf(seats)) {
+                maps.replace(scheduleId, map, new SeatMap(seats));
+            } else if (!map.reconcile(seats, version)) {
+                // A transition landed while we were reading; the next round will pick it up
+                log.debug("Skipped reconciling schedule {}: concurrent update", scheduleId);
+            }
+        }
+    }
+
+    private SeatMap load(Long scheduleId) {
+        List<Seat> seats = seatRepo.findByScheduleId(scheduleId);
+        if (seats.isEmpty()) {
+            return null;
+        }
+        SeatMap fresh = new SeatMap(seats);
+        SeatMap existing = maps.putIfAbsent(scheduleId, fresh);
+        return existing != null ? existing : fresh;
+    }
+
+    private static final class SeatMap {
+        private final Seat[] layout;
+        private final int[] slots;
+        private final Map<String, Integer> positions;
+        private final AtomicLongArray words;
+        private final AtomicLong version = new AtomicLong();
+        private volatile Snapshot snapshot;
+        private volatile long lastReadAt = System.currentTimeMillis();
+
+        SeatMap(List<Seat> seats) {
+            this.layout = new Seat[seats.size()];
+            this.slots = new int[seats.size()];
+            this.positions = new HashMap<>(seats.size() * 2);
+
+            int width = seats.stream()
+                    .map(Seat::getColIndex)
+                    .filter(Objects::nonNull)
+                    .mapToInt(Integer::intValue)
+                    .max().orElse(0) + 1;
+            boolean useGrid = seats.stream().allMatch(s -> s.getRowIndex() != null && s.getColIndex() != null);
+
+            Set<Integer> used = new HashSet<>();
+            int maxSlot = 0;
+            for (int i = 0; i < seats.size(); i++) {
+                Seat seat = seats.get(i);
+                layout[i] = Seat.builder()
+                        .id(seat.getId())
+                        .seatNumber(seat.getSeatNumber())
+                        .rowIndex(seat.getRowIndex())
+                        .colIndex(seat.getColIndex())
+                        .seatType(seat.getSeatType())
+                        .build();
+                positions.put(seat.getSeatNumber(), i);
+                slots[i] = useGrid ? seat.getRowIndex() * width + seat.getColIndex() : i;
+                useGrid &= used.add(slots[i]);
+                maxSlot = Math.max(maxSlot, slots[i]);
+            }
+            if (!useGrid) {
+                // Missing or clashing row/col indexes: fall back to one slot per seat in load order
+                for (int i = 0; i < slots.length; i++) {
+                    slots[i] = i;
+                }
+                maxSlot = slots.length - 1;
+            }
+
+            this.words = new AtomicLongArray(maxSlot / SEATS_PER_WORD + 1);
+            for (int i = 0; i < seats.size(); i++) {
+                int slot = slots[i];
+                int word = slot / SEATS_PER_WORD;
+                words.set(word, words.get(word) | encode(slot, seats.get(i).getStatus()));
+            }
+        }
+
+        boolean compareAndSet(String seatNumber, Seat.Status from, Seat.Status to) {
+            Integer position = positions.get(seatNumber);
+            if (position == null) {
+                return false;
+            }
+            int slot = slots[position];
+            int word = slot / SEATS_PER_WORD;
+            int shift = (slot % SEATS_PER_WORD) * BITS_PER_SEAT;
+
+            // Bump the version first so an in-flight reconcile backs off instead of overwriting us
+            version.incrementAndGet();
+            while (true) {
+                long current = words.get(word);
+                if (((current >>> shift) & STATUS_MASK) != from.ordinal()) {
+                    return false;
+                }
+                long next = (current & ~(STATUS_MASK << shift)) | ((long) to.ordinal() << shift);
+                if (words.compareAndSet(word, current, next)) {
+                    // And again after: a snapshot that saw the first bump may have copied the old word
+                    version.incrementAndGet();
+                    return true;
+                }
+            }
+        }
+
+        boolean hasLayoutOf(List<Seat> seats) {
+            if (seats.size() != layout.length) {
+                return false;
+            }
+            for (Seat seat : seats) {
+                Integer position = positions.get(seat.getSeatNumber());
+                if (position == null || !Objects.equals(layout[position].getId(), seat.getId())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Overwrites the statuses with the database view, unless a transition happened
+         * since {@code expectedVersion} was read. Returns false when it backed off.
+         */
+        boolean reconcile(List<Seat> seats, long expectedVersion) {
+            long[] target = new long[words.length()];
+            for (Seat seat : seats) {
+                int slot = slots[positions.get(seat.getSeatNumber())];
+                target[slot / SEATS_PER_WORD] |= encode(slot, seat.getStatus());
+            }
+            for (int i = 0; i < target.length; i++) {
+                long current = words.get(i);
+                if (current == target[i]) {
+                    continue;
+                }
+                if (version.get() != expectedVersion || !words.compareAndSet(i, current, target[i])) {
+                    return false;
+                }
+                version.incrementAndGet();
+                expectedVersion++;
+            }
+            return true;
+        }
+
+        List<Seat> snapshot() {
+            lastReadAt = System.currentTimeMillis();
+            long v = version.get();
+            Snapshot cached = snapshot;
+            if (cached != null && cached.version == v) {
+                return cached.seats;
+            }
+
+            List<Seat> seats = new ArrayList<>(layout.length);
+            for (int i = 0; i < layout.length; i++) {
+                Seat template = layout[i];
+                int slot = slots[i];
+                long bits = (words.get(slot / SEATS_PER_WORD) >>> ((slot % SEATS_PER_WORD) * BITS_PER_SEAT)) & STATUS_MASK;
+                seats.add(Seat.builder()
+                        .id(template.getId())
+                        .seatNumber(template.getSeatNumber())
+                        .rowIndex(template.getRowIndex())
+                        .colIndex(template.getColIndex())
+                        .seatType(template.getSeatType())
+                        .status(STATUSES[(int) bits])
+                        .build());
+            }
+            List<Seat> result = Collections.unmodifiableList(seats);
+            // Only cache if nothing changed while we were copying
+            if (version.get() == v) {
+                snapshot = new Snapshot(v, result);
+            }
+            return result;
+        }
+
+        private static long encode(int slot, Seat.Status status) {
+            return ((long) status.ordinal()) << ((slot % SEATS_PER_WORD) * BITS_PER_SEAT);
+        }
+    }
+
+    private record Snapshot(long version, List<Seat> seats) {
+    }
+}
@@ -0,0 +1,92 @@
+package edu.cit.lgng.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-schedule counters for seat reservation contention:
+ * retries after transient lock failures, and conflicts where a seat was already taken.
+ * Totals are also published to Micrometer as {@code booking.seat.retries} / {@code booking.seat.conflicts},
+ * along with {@code booking.seat.counter.underflow} for bookings stopped by the availableSeats floor.
+ *
+ * The per-schedule entries are bounded: a schedule with no contention for
+ * {@code booking.contention.idle-ttl} is dropped, and at most {@code booking.contention.max-schedules} are kept.
+ */
+@Component
+public class SeatContentionMetrics {
+
+    private static final int MAX_TOP = 100;
+
+    private final Cache<Long, Counters> bySchedule;
+    private final Counter retryCounter;
+    private final Counter conflictCounter;
+    private final Counter underflowCounter;
+
+    public SeatContentionMetrics(@Value("${booking.contention.idle-ttl:PT24H}") Duration idleTtl,
+                                 @Value("${booking.contention.max-schedules:10000}") long maxSchedules,
+                                 MeterRegistry meterRegistry) {
+        this.bySchedule = Caffeine.newBuilder()
+                .expireAfterAccess(idleTtl)
+                .maximumSize(maxSchedules)
+                .build();
+        // No schedule tag: the per-schedule breakdown is served by top() instead
+        this.retryCounter = Counter.builder("booking.seat.retries")
+                .description("Seat reservations retried after a transient lock failure")
+                .register(meterRegistry);
+        this.conflictCounter = Counter.builder("booking.seat.conflicts")
+                .description("Seat reservations rejected because a seat was already taken")
+                .register(meterRegistry);
+        this.underflowCounter = Counter.builder("booking.seat.counter.underflow")
+                .description("Bookings rejected because Schedule.availableSeats would have gone below zero")
+                .register(meterRegistry);
+    }
+
+    public void recordRetry(Long scheduleId) {
+        counters(scheduleId).retries.increment();
+        retryCounter.increment();
+    }
+
+    public void recordConflict(Long scheduleId) {
+        counters(scheduleId).conflicts.increment();
+        conflictCounter.increment();
+    }
+
+    /**
+     * A booking found fewer seats on the schedule's counter than it took from the seats table.
+     */
+    public void recordCounterUnderflow() {
+        underflowCounter.increment();
+    }
+
+    /**
+     * Returns the most contended schedules first, limited to {@code limit} entries (at most 100).
+     */
+    public List<ScheduleContention> top(int limit) {
+        return bySchedule.asMap().entrySet().stream()
+                .map(e -> new ScheduleContention(e.getKey(), e.getValue().retries.sum(), e.getValue().conflicts.sum()))
+                .sorted(Comparator.comparingLong((ScheduleContention c) -> c.retries() + c.conflicts()).reversed())
+                .limit(Math.min(Math.max(limit, 0), MAX_TOP))
+                .toList();
+    }
+
+    private Counters counters(Long scheduleId) {
+        return bySchedule.get(scheduleId, id -> new Counters());
+    }
+
+    private static final class Counters {
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+    }
+
+    public record ScheduleContention(Long scheduleId, long retries, long conflicts) {
+    }
+}
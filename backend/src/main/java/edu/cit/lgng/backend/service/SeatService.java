@@ -17,6 +17,7 @@ public class SeatService {
 
     private final SeatRepository seatRepo;
     private final ScheduleRepository scheduleRepo;
+    private final SeatAvailabilityIndex seatIndex;
 
     @Transactional
     public List<Seat> generateSeats(Long scheduleId, int rows, int cols) {
@@ -40,14 +41,17 @@ public class SeatService {
             seats = generateGridLayout(schedule, rows, cols);
         }
 
-        return seatRepo.saveAll(seats);
+        List<Seat> saved = seatRepo.saveAll(seats);
+        seatIndex.invalidate(scheduleId);
+        return saved;
     }
 
     /**
      * Generate custom bus layout for Standard (41 seats) and Premium (53 seats) buses
      * Layout: 2 seats - aisle (gap) - 2 seats per regular row, last row has 5 seats
+     * Pure: builds unsaved seats only.
      */
-    private List<Seat> generateCustomBusLayout(Schedule schedule, int capacity) {
+    public static List<Seat> generateCustomBusLayout(Schedule schedule, int capacity) {
         List<Seat> seats = new ArrayList<>();
         int seatCount = 0;
         int row = 0;
@@ -103,8 +107,9 @@ public class SeatService {
 
     /**
      * Generate default grid layout for buses with other capacities
+     * Pure: builds unsaved seats only.
      */
-    private List<Seat> generateGridLayout(Schedule schedule, int rows, int cols) {
+    public static List<Seat> generateGridLayout(Schedule schedule, int rows, int cols) {
         List<Seat> seats = new ArrayList<>();
         for (int r = 0; r < rows; r++) {
             for (int c = 0; c < cols; c++) {
@@ -123,6 +128,6 @@ public class SeatService {
     }
 
     public List<Seat> getSeatsBySchedule(Long scheduleId) {
-        return seatRepo.findByScheduleId(scheduleId);
+        return seatIndex.getSeats(scheduleId);
     }
 }
\ No newline at end of file
@@ -0,0 +1,240 @@
+package edu.cit.lgng.backend.service;
+
+import edu.cit.lgng.backend.util.Hashing;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compact signed ticket tokens, the payload of booking QR codes.
+ *
+ * A token is {@code BM1:} followed by the Base45 encoding of
+ * {@code varint bookingId | varint scheduleId | firstRow | width | seat bitmask | 8-byte HMAC-SHA256}.
+ * Seats ("A1", "C4"...) are bits in a row-major grid starting at the booking's first row, so a
+ * typical ticket is about 20 bytes. Base45 only uses QR alphanumeric characters, which keeps
+ * the code at a low QR version that scans quickly.
+ *
+ * Verification needs only the signing key, no database, so it also works from a downloaded manifest.
+ *
+ * Base45 output can contain spaces and {@code $%*+-./:}, including at either end. Tokens must be
+ * passed on exactly as scanned: not trimmed, and not URL or form decoded (a {@code +} would turn
+ * into a space). That is why {@code /api/tickets/verify} takes the token in a JSON body.
+ */
+@Component
+public class TicketCodec {
+
+    public static final String PREFIX = "BM1:";
+
+    private static final int MAC_LENGTH = 8;
+    private static final Pattern SEAT = Pattern.compile("([A-Z])(\\d{1,3})");
+    private static final String BASE45 = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ $%*+-./:";
+
+    public record Ticket(Long bookingId, Long scheduleId, List<String> seatNumbers) {
+    }
+
+    private final SecretKeySpec key;
+    private final ThreadLocal<Mac> macs;
+
+    public TicketCodec(@Value("${ticket.signing-key:${jwt.secret}}") String secret) {
+        // Derived rather than reused as-is, so a ticket MAC can never double as a JWT signature
+        this.key = new SecretKeySpec(hmac(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"),
+                "busmate-ticket-v1".getBytes(StandardCharsets.UTF_8)), "HmacSHA256");
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 not available", e);
+            }
+        });
+    }
+
+    /**
+     * Builds the signed token for a booking's seats.
+     */
+    public String issue(Long bookingId, Long scheduleId, List<String> seatNumbers) {
+        int firstRow = Integer.MAX_VALUE;
+        int lastRow = 0;
+        int width = 1;
+        int[][] seats = new int[seatNumbers.size()][];
+        for (int i = 0; i < seats.length; i++) {
+            Matcher m = SEAT.matcher(seatNumbers.get(i));
+            if (!m.matches() || Integer.parseInt(m.group(2)) < 1 || Integer.parseInt(m.group(2)) > 255) {
+                throw new IllegalArgumentException("Unsupported seat number: " + seatNumbers.get(i));
+            }
+            int row = m.group(1).charAt(0) - 'A';
+            int number = Integer.parseInt(m.group(2));
+            seats[i] = new int[]{row, number};
+            firstRow = Math.min(firstRow, row);
+            lastRow = Math.max(lastRow, row);
+            width = Math.max(width, number);
+        }
+        if (seats.length == 0) {
+            firstRow = 0;
+        }
+
+        byte[] mask = new byte[seats.length == 0 ? 0 : ((lastRow - firstRow + 1) * width + 7) / 8];
+        for (int[] seat : seats) {
+            int bit = (seat[0] - firstRow) * width + (seat[1] - 1);
+            mask[bit / 8] |= (byte) (1 << (bit % 8));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+        writeVarint(out, bookingId);
+        writeVarint(out, scheduleId);
+        out.write(firstRow);
+        out.write(width);
+        out.writeBytes(mask);
+        byte[] body = out.toByteArray();
+
+        byte[] token = Arrays.copyOf(body, body.length + MAC_LENGTH);
+        System.arraycopy(sign(body), 0, token, body.length, MAC_LENGTH);
+        return PREFIX + base45Encode(token);
+    }
+
+    /**
+     * Checks the signature and decodes the token.
+     *
+     * @throws RuntimeException if the token is malformed or was not signed with our key
+     */
+    public Ticket verify(String token) {
+        if (token != null && token.startsWith("{")) {
+            // JSON payload of tickets confirmed before tokens; LegacyTicketBackfill re-issues those bookings
+            throw new RuntimeException("Old ticket format: ask the passenger to reopen the booking for a new code");
+        }
+        if (token == null || !token.startsWith(PREFIX)) {
+            throw new RuntimeException("Not a ticket");
+        }
+        byte[] bytes = base45Decode(token.substring(PREFIX.length()));
+        if (bytes.length < 4 + MAC_LENGTH) {
+            throw new RuntimeException("Invalid ticket");
+        }
+        int bodyLength = bytes.length - MAC_LENGTH;
+        byte[] expected = Arrays.copyOf(sign(Arrays.copyOf(bytes, bodyLength)), MAC_LENGTH);
+        if (!MessageDigest.isEqual(expected, Arrays.copyOfRange(bytes, bodyLength, bytes.length))) {
+            throw new RuntimeException("Invalid ticket signature");
+        }
+
+        int[] pos = {0};
+        long bookingId = readVarint(bytes, pos, bodyLength);
+        long scheduleId = readVarint(bytes, pos, bodyLength);
+        if (pos[0] + 2 > bodyLength) {
+            throw new RuntimeException("Invalid ticket");
+        }
+        int firstRow = bytes[pos[0]++] & 0xFF;
+        int width = bytes[pos[0]++] & 0xFF;
+        if (width == 0) {
+            throw new RuntimeException("Invalid ticket");
+        }
+
+        List<String> seatNumbers = new ArrayList<>();
+        for (int bit = 0; bit < (bodyLength - pos[0]) * 8; bit++) {
+            if ((bytes[pos[0] + bit / 8] & (1 << (bit % 8))) != 0) {
+                seatNumbers.add((char) ('A' + firstRow + bit / width) + String.valueOf(bit % width + 1));
+            }
+        }
+        return new Ticket(bookingId, scheduleId, seatNumbers);
+    }
+
+    /**
+     * Short one-way digest of a token, so a manifest can list valid tickets without containing them.
+     */
+    public static String fingerprint(String token) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(Hashing.sha256(token), 9));
+    }
+
+    private byte[] sign(byte[] body) {
+        return macs.get().doFinal(body);
+    }
+
+    private static byte[] hmac(SecretKeySpec key, byte[] data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(byte[] bytes, int[] pos, int limit) {
+        long value = 0;
+        for (int shift = 0; shift < 64 && pos[0] < limit; shift += 7) {
+            byte b = bytes[pos[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new RuntimeException("Invalid ticket");
+    }
+
+    // RFC 9285: every 2 bytes become 3 characters, a trailing byte becomes 2
+    static String base45Encode(byte[] bytes) {
+        StringBuilder sb = new StringBuilder((bytes.length + 1) / 2 * 3);
+        for (int i = 0; i + 1 < bytes.length; i += 2) {
+            int n = (bytes[i] & 0xFF) * 256 + (bytes[i + 1] & 0xFF);
+            sb.append(BASE45.charAt(n % 45)).append(BASE45.charAt(n / 45 % 45)).append(BASE45.charAt(n / 2025));
+        }
+        if (bytes.length % 2 == 1) {
+            int n = bytes[bytes.length - 1] & 0xFF;
+            sb.append(BASE45.charAt(n % 45)).append(BASE45.charAt(n / 45));
+        }
+        return sb.toString();
+    }
+
+    static byte[] base45Decode(String text) {
+        if (text.length() % 3 == 1) {
+            throw new RuntimeException("Invalid ticket");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(text.length() * 2 / 3);
+        for (int i = 0; i < text.length(); i += 3) {
+            int c = digit(text.charAt(i));
+            int d = digit(text.charAt(i + 1));
+            if (i + 2 < text.length()) {
+                int n = c + d * 45 + digit(text.charAt(i + 2)) * 2025;
+                if (n > 0xFFFF) {
+                    throw new RuntimeException("Invalid ticket");
+                }
+                out.write(n >> 8);
+                out.write(n & 0xFF);
+            } else {
+                int n = c + d * 45;
+                if (n > 0xFF) {
+                    throw new RuntimeException("Invalid ticket");
+                }
+                out.write(n);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static int digit(char ch) {
+        int d = BASE45.indexOf(ch);
+        if (d < 0) {
+            throw new RuntimeException("Invalid ticket");
+        }
+        return d;
+    }
+}
@@ -0,0 +1,216 @@
+package edu.cit.lgng.backend.service;
+
+import edu.cit.lgng.backend.config.CacheConfig;
+import edu.cit.lgng.backend.dto.TicketDto.*;
+import edu.cit.lgng.backend.model.Booking;
+import edu.cit.lgng.backend.model.Schedule;
+import edu.cit.lgng.backend.model.TicketCheckIn;
+import edu.cit.lgng.backend.repository.BookingRepository;
+import edu.cit.lgng.backend.repository.BookingSeatRepository;
+import edu.cit.lgng.backend.repository.ScheduleRepository;
+import edu.cit.lgng.backend.repository.TicketCheckInRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Boarding-side operations for conductors: the per-schedule manifest downloaded before departure,
+ * and bulk reconciliation of scans made while offline.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TicketService {
+    private final ScheduleRepository scheduleRepo;
+    private final BookingRepository bookingRepo;
+    private final BookingSeatRepository bookingSeatRepo;
+    private final TicketCheckInRepository checkInRepo;
+    private final TicketCodec ticketCodec;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${ticket.check-in.max-batch:1000}")
+    private int maxBatch;
+
+    /**
+     * Every CONFIRMED ticket on a schedule with its seats and token fingerprint, enough for a
+     * device to validate scans with no connection. Built from one projection query and cached briefly.
+     * Bookings whose seats cannot be encoded in a token are listed without a hash.
+     */
+    @Cacheable(CacheConfig.TICKET_MANIFESTS)
+    @Timed(value = "ticket.manifest", histogram = true)
+    public Manifest getManifest(Long scheduleId) {
+        Schedule schedule = scheduleRepo.findById(scheduleId)
+                .orElseThrow(() -> new RuntimeException("Schedule not found"));
+
+        Map<Long, List<String>> seatsByBooking = bookingSeatRepo.findConfirmedSeatsByScheduleId(scheduleId).stream()
+                .collect(Collectors.groupingBy(BookingSeatRepository.SeatOfBooking::getBookingId, LinkedHashMap::new,
+                        Collectors.mapping(BookingSeatRepository.SeatOfBooking::getSeatNumber, Collectors.toList())));
+
+        List<ManifestEntry> tickets = new ArrayList<>(seatsByBooking.size());
+        StringBuilder versionSource = new StringBuilder();
+        seatsByBooking.forEach((bookingId, seats) -> {
+            String hash = null;
+            try {
+                hash = TicketCodec.fingerprint(ticketCodec.issue(bookingId, scheduleId, seats));
+            } catch (IllegalArgumentException e) {
+                // No QR token exists for this booking; the conductor checks it in by booking ID
+                log.warn("Manifest for schedule {}: booking {} has no ticket hash: {}", scheduleId, bookingId, e.getMessage());
+            }
+            tickets.add(new ManifestEntry(bookingId, seats, hash));
+            versionSource.append(hash != null ? hash : bookingId + ":" + String.join("/", seats)).append(',');
+        });
+
+        return Manifest.builder()
+                .scheduleId(scheduleId)
+                .travelDate(schedule.getTravelDate())
+                .departureTime(schedule.getDepartureTime())
+                .origin(schedule.getRoute().getOrigin())
+                .destination(schedule.getRoute().getDestination())
+                .busNumber(schedule.getBus() != null ? schedule.getBus().getBusNumber() : null)
+                .generatedAt(Instant.now())
+                .version(TicketCodec.fingerprint(versionSource.toString()))
+                .tickets(tickets)
+                .build();
+    }
+
+    /**
+     * Reconciles a batch of offline scans for one schedule.
+     *
+     * Tokens are verified in memory, then booking states and earlier check-ins for the whole batch
+     * are read with one query each, and the new check-ins are inserted together. The first scan of a
+     * booking wins; repeats (in this batch, earlier uploads or a concurrent upload) are DUPLICATE.
+     */
+    @Timed(value = "ticket.checkin.batch", histogram = true)
+    public CheckInBatchResponse checkIn(CheckInBatchRequest request, String conductor) {
+        List<Scan> scans = request.getScans() != null ? request.getScans() : List.of();
+        if (request.getScheduleId() == null) {
+            throw new RuntimeException("scheduleId is required");
+        }
+        if (scans.size() > maxBatch) {
+            throw new RuntimeException("At most " + maxBatch + " scans per upload");
+        }
+
+        // Decode everything first; no database needed for this part
+        ScanResult[] results = new ScanResult[scans.size()];
+        Map<Integer, Long> bookingIdByScan = new LinkedHashMap<>();
+        for (int i = 0; i < scans.size(); i++) {
+            Scan scan = scans.get(i);
+            if (scan.getToken() != null && !scan.getToken().isBlank()) {
+                try {
+                    TicketCodec.Ticket ticket = ticketCodec.verify(scan.getToken());
+                    if (!ticket.scheduleId().equals(request.getScheduleId())) {
+                        results[i] = rejected(ticket.bookingId(), CheckInResult.WRONG_TRIP, "Ticket is for another trip");
+                        continue;
+                    }
+                    results[i] = ScanResult.builder().bookingId(ticket.bookingId()).seatNumbers(ticket.seatNumbers()).build();
+                    bookingIdByScan.put(i, ticket.bookingId());
+                } catch (RuntimeException e) {
+                    results[i] = rejected(null, CheckInResult.INVALID, e.getMessage());
+                }
+            } else if (scan.getBookingId() != null) {
+                results[i] = ScanResult.builder().bookingId(scan.getBookingId()).build();
+                bookingIdByScan.put(i, scan.getBookingId());
+            } else {
+                results[i] = rejected(null, CheckInResult.INVALID, "Scan has neither token nor bookingId");
+            }
+        }
+
+        // One retry: a concurrent upload may claim some of the same bookings between our read and insert
+        for (int attempt = 1; ; attempt++) {
+            try {
+                reconcile(request, conductor, scans, results, bookingIdByScan);
+                break;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= 2) {
+                    throw e;
+                }
+                log.info("Concurrent check-in on schedule {}, reconciling again", request.getScheduleId());
+            }
+        }
+
+        int accepted = 0;
+        int duplicates = 0;
+        for (ScanResult result : results) {
+            meterRegistry.counter("ticket.checkins", "result", result.getResult().name()).increment();
+            if (result.getResult() == CheckInResult.ACCEPTED) {
+                accepted++;
+            } else if (result.getResult() == CheckInResult.DUPLICATE) {
+                duplicates++;
+            }
+        }
+        return CheckInBatchResponse.builder()
+                .accepted(accepted)
+                .duplicates(duplicates)
+                .rejected(results.length - accepted - duplicates)
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    private void reconcile(CheckInBatchRequest request, String conductor, List<Scan> scans,
+                           ScanResult[] results, Map<Integer, Long> bookingIdByScan) {
+        if (bookingIdByScan.isEmpty()) {
+            return;
+        }
+        Set<Long> bookingIds = new HashSet<>(bookingIdByScan.values());
+        Map<Long, BookingRepository.BookingState> states = bookingRepo.findStatesByIds(bookingIds).stream()
+                .collect(Collectors.toMap(BookingRepository.BookingState::getId, Function.identity()));
+        Map<Long, Instant> checkedIn = new HashMap<>();
+        checkInRepo.findByBookingIdIn(bookingIds).forEach(c -> checkedIn.put(c.getBookingId(), c.getScannedAt()));
+
+        List<TicketCheckIn> inserts = new ArrayList<>();
+        Instant now = Instant.now();
+        for (Map.Entry<Integer, Long> entry : bookingIdByScan.entrySet()) {
+            int i = entry.getKey();
+            Long bookingId = entry.getValue();
+            ScanResult result = results[i];
+            result.setError(null);
+            result.setCheckedInAt(null);
+
+            BookingRepository.BookingState state = states.get(bookingId);
+            if (state == null) {
+                result.setResult(CheckInResult.UNKNOWN_BOOKING);
+                result.setError("Booking not found");
+            } else if (!state.getScheduleId().equals(request.getScheduleId())) {
+                result.setResult(CheckInResult.WRONG_TRIP);
+                result.setError("Ticket is for another trip");
+            } else if (state.getStatus() != Booking.Status.CONFIRMED) {
+                result.setResult(CheckInResult.NOT_CONFIRMED);
+                result.setError("Booking is " + state.getStatus());
+            } else if (checkedIn.containsKey(bookingId)) {
+                result.setResult(CheckInResult.DUPLICATE);
+                result.setCheckedInAt(checkedIn.get(bookingId));
+            } else {
+                Instant scannedAt = scans.get(i).getScannedAt() != null ? scans.get(i).getScannedAt() : now;
+                result.setResult(CheckInResult.ACCEPTED);
+                result.setCheckedInAt(scannedAt);
+                checkedIn.put(bookingId, scannedAt);
+                inserts.add(TicketCheckIn.builder()
+                        .bookingId(bookingId)
+                        .scheduleId(request.getScheduleId())
+                        .scannedAt(scannedAt)
+                        .checkedInBy(conductor)
+                        .deviceId(request.getDeviceId())
+                        .build());
+            }
+        }
+        if (!inserts.isEmpty()) {
+            transactionTemplate.executeWithoutResult(tx -> checkInRepo.saveAllAndFlush(inserts));
+        }
+    }
+
+    private static ScanResult rejected(Long bookingId, CheckInResult result, String error) {
+        return ScanResult.builder().bookingId(bookingId).result(result).error(error).build();
+    }
+}
@@ -17,6 +17,7 @@ import java.util.List;
 public class UserService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final AuthPrincipalService authPrincipalService;
 
     // Normal user signup
     public User signup(String name, String email, String rawPassword) {
@@ -32,6 +33,7 @@ public class UserService {
                 .role(Role.USER)
                 .createdAt(LocalDateTime.now())
                 .build();
+        authPrincipalService.evict(email);
         return userRepository.save(user);
     }
 
@@ -49,6 +51,7 @@ public class UserService {
                 .role(Role.ADMIN)
                 .createdAt(LocalDateTime.now())
                 .build();
+        authPrincipalService.evict(email);
         return userRepository.save(admin);
     }
 
@@ -81,6 +84,7 @@ public class UserService {
             throw new RuntimeException("Cannot demote existing Super Admin — transfer ownership instead");
 
         target.setRole(newRole);
+        authPrincipalService.evict(target.getEmail());
         return userRepository.save(target);
     }
 
@@ -97,6 +101,8 @@ public class UserService {
         newOwner.setRole(Role.SUPER_ADMIN);
         userRepository.save(currentSuperAdmin);
         userRepository.save(newOwner);
+        authPrincipalService.evict(currentSuperAdmin.getEmail());
+        authPrincipalService.evict(newOwner.getEmail());
     }
 
     public List<User> getAllUsers() {
@@ -144,6 +150,7 @@ public class UserService {
         // Email can be reused because findByEmailAndNotDeleted ignores deleted accounts
         user.setDeletedAt(LocalDateTime.now());
         userRepository.save(user);
+        authPrincipalService.evict(user.getEmail());
     }
 
     @Transactional
@@ -164,6 +171,7 @@ public class UserService {
                     }
 
                     if (changed) {
+                        authPrincipalService.evict(email);
                         return userRepository.save(existing);
                     }
                     return existing;
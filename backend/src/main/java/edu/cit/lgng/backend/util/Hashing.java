@@ -0,0 +1,25 @@
+package edu.cit.lgng.backend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 of strings, for cache keys, fingerprints and ETags. Callers pick the encoding and length.
+ */
+public final class Hashing {
+
+    private Hashing() {
+    }
+
+    /**
+     * SHA-256 of the UTF-8 bytes of {@code value}.
+     */
+    public static byte[] sha256(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
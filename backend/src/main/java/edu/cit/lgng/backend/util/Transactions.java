@@ -0,0 +1,30 @@
+package edu.cit.lgng.backend.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Helpers for keeping in-memory state in step with the database.
+ */
+public final class Transactions {
+
+    private Transactions() {
+    }
+
+    /**
+     * Runs {@code action} once the current transaction commits, or immediately when called
+     * outside a transaction. Rolled back transactions never run it.
+     */
+    public static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
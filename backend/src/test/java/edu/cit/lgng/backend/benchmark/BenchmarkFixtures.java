@@ -0,0 +1,75 @@
+package edu.cit.lgng.backend.benchmark;
+
+import edu.cit.lgng.backend.model.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * In-memory entity graphs shared by the benchmarks, so nothing needs a database.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static BusType busType(int capacity) {
+        return BusType.builder()
+                .id(1L)
+                .name(capacity == 53 ? "Premium" : "Standard")
+                .arrangement("2-2")
+                .capacity(capacity)
+                .description("Air-conditioned coach")
+                .build();
+    }
+
+    static Schedule schedule(long id, int capacity) {
+        Route route = Route.builder()
+                .id(1L)
+                .origin("Cebu City")
+                .destination("Bogo City")
+                .distanceKm(101)
+                .durationMinutes(180)
+                .build();
+        Bus bus = Bus.builder()
+                .id(1L)
+                .busNumber("BM-101")
+                .plateNo("GAB 1234")
+                .busType(busType(capacity))
+                .status(Bus.Status.ACTIVE)
+                .build();
+        Schedule schedule = Schedule.builder()
+                .id(id)
+                .route(route)
+                .bus(bus)
+                .travelDate(LocalDate.of(2025, 12, 20))
+                .departureTime(LocalTime.of(8, 30))
+                .arrivalTime(LocalTime.of(11, 30))
+                .price(new BigDecimal("250.00"))
+                .availableSeats(capacity)
+                .build();
+        schedule.setCreatedAt(Instant.parse("2025-11-01T00:00:00Z"));
+        return schedule;
+    }
+
+    static Booking booking(long id, Schedule schedule, List<String> seatNumbers) {
+        User user = User.builder()
+                .id(7L)
+                .name("Juan Dela Cruz")
+                .email("juan@example.com")
+                .role(User.Role.USER)
+                .build();
+        return Booking.builder()
+                .id(id)
+                .user(user)
+                .schedule(schedule)
+                .amount(schedule.getPrice().multiply(BigDecimal.valueOf(seatNumbers.size())))
+                .status(Booking.Status.CONFIRMED)
+                .paymentRef("pi_benchmark_0001")
+                .createdAt(Instant.parse("2025-11-02T03:04:05Z"))
+                .build();
+    }
+}
@@ -0,0 +1,103 @@
+package edu.cit.lgng.backend.benchmark;
+
+import edu.cit.lgng.backend.config.JwtUtil;
+import edu.cit.lgng.backend.model.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.security.SecureRandom;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens per second for JwtUtil, compared with the previous implementation that rebuilt
+ * the signing key and parser on every call and parsed a token three times per request.
+ *
+ * Run with: mvn -Pbenchmark test -Djmh.args="JwtUtilBenchmark -f 1"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+public class JwtUtilBenchmark {
+
+    private static final long EXPIRATION_MS = 3_600_000;
+
+    private String secret;
+    private JwtUtil jwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private User user;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setup() {
+        byte[] keyBytes = new byte[32];
+        new SecureRandom().nextBytes(keyBytes);
+        secret = Encoders.BASE64.encode(keyBytes);
+
+        jwtUtil = new JwtUtil(secret, EXPIRATION_MS, 10_000);
+        uncachedJwtUtil = new JwtUtil(secret, EXPIRATION_MS, 0);
+        user = User.builder().email("bench@example.com").role(User.Role.USER).build();
+        userDetails = new org.springframework.security.core.userdetails.User(user.getEmail(), "", List.of());
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String legacyGenerateToken() {
+        return Jwts.builder()
+                .claim("role", user.getRole().name())
+                .setSubject(user.getEmail())
+                .setIssuedAt(new java.util.Date())
+                .setExpiration(new java.util.Date(System.currentTimeMillis() + EXPIRATION_MS))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)))
+                .compact();
+    }
+
+    /** What JwtRequestFilter does per request now: one parse, served from the claims cache. */
+    @Benchmark
+    public Claims authenticateCached() {
+        return jwtUtil.parseClaims(token);
+    }
+
+    /** Same as above with the cache disabled, i.e. one signature check per request. */
+    @Benchmark
+    public Claims authenticateUncached() {
+        return uncachedJwtUtil.parseClaims(token);
+    }
+
+    @Benchmark
+    public Boolean validateToken() {
+        return jwtUtil.validateToken(token, userDetails);
+    }
+
+    /** The old filter path: extractUsername, role claim and validateToken, each a fresh parse. */
+    @Benchmark
+    public Boolean legacyAuthenticate() {
+        String username = legacyParse(token).getSubject();
+        String role = legacyParse(token).get("role", String.class);
+        Claims claims = legacyParse(token);
+        return role != null && username.equals(userDetails.getUsername())
+                && claims.getExpiration().after(new java.util.Date());
+    }
+
+    private Claims legacyParse(String jwt) {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)))
+                .build()
+                .parseClaimsJws(jwt)
+                .getBody();
+    }
+}
@@ -0,0 +1,43 @@
+package edu.cit.lgng.backend.benchmark;
+
+import edu.cit.lgng.backend.service.TicketCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QR payload building done on every booking confirmation (BookingService and PayMongoService):
+ * a signed {@link TicketCodec} token, and its verification at boarding.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class QrCodeContentBenchmark {
+
+    @Param({"1", "4"})
+    public int seatCount;
+
+    private TicketCodec ticketCodec;
+    private List<String> seatNumbers;
+    private String token;
+
+    @Setup
+    public void setup() {
+        ticketCodec = new TicketCodec("benchmark-signing-key");
+        seatNumbers = List.of("A1", "A2", "A3", "A4").subList(0, seatCount);
+        token = ticketCodec.issue(123L, 1L, seatNumbers);
+    }
+
+    @Benchmark
+    public String issue() {
+        return ticketCodec.issue(123L, 1L, seatNumbers);
+    }
+
+    @Benchmark
+    public TicketCodec.Ticket verify() {
+        return ticketCodec.verify(token);
+    }
+}
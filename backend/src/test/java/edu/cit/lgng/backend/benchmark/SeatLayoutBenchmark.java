@@ -0,0 +1,41 @@
+package edu.cit.lgng.backend.benchmark;
+
+import edu.cit.lgng.backend.model.Schedule;
+import edu.cit.lgng.backend.model.Seat;
+import edu.cit.lgng.backend.service.SeatService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Seat layout generation used when seats are created for a new schedule.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SeatLayoutBenchmark {
+
+    @Param({"41", "53"})
+    public int capacity;
+
+    private Schedule schedule;
+
+    @Setup
+    public void setup() {
+        schedule = BenchmarkFixtures.schedule(1L, capacity);
+    }
+
+    @Benchmark
+    public List<Seat> customBusLayout() {
+        return SeatService.generateCustomBusLayout(schedule, capacity);
+    }
+
+    /** Grid with the same number of rows as the custom layout, five seats across. */
+    @Benchmark
+    public List<Seat> gridLayout() {
+        return SeatService.generateGridLayout(schedule, capacity / 5 + 1, 5);
+    }
+}
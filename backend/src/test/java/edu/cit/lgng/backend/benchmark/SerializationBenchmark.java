@@ -0,0 +1,87 @@
+package edu.cit.lgng.backend.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.cit.lgng.backend.model.Booking;
+import edu.cit.lgng.backend.model.Schedule;
+import edu.cit.lgng.backend.model.Seat;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of the entity graphs returned by the booking, schedule and seat endpoints,
+ * using the same ObjectMapper defaults Spring Boot configures.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SerializationBenchmark {
+
+    @Param({"20", "100"})
+    public int listSize;
+
+    private ObjectMapper objectMapper;
+    private Booking booking;
+    private List<Booking> bookings;
+    private List<Schedule> schedules;
+    private List<Seat> seats;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        schedules = new ArrayList<>(listSize);
+        bookings = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            Schedule schedule = BenchmarkFixtures.schedule(i + 1L, 41);
+            Booking b = BenchmarkFixtures.booking(i + 1L, schedule, List.of("A1", "A2"));
+            b.setQrCodeText("{\"bookingId\":\"BM-%06d\",\"status\":\"CONFIRMED\",\"seats\":\"A1, A2\"}".formatted(i + 1));
+            schedules.add(schedule);
+            bookings.add(b);
+        }
+        booking = bookings.get(0);
+
+        seats = new ArrayList<>();
+        for (int r = 0; r < 10; r++) {
+            for (int c = 0; c < 5; c++) {
+                seats.add(Seat.builder()
+                        .id((long) seats.size() + 1)
+                        .schedule(schedules.get(0))
+                        .seatNumber((char) ('A' + r) + String.valueOf(c + 1))
+                        .rowIndex(r)
+                        .colIndex(c)
+                        .status(Seat.Status.AVAILABLE)
+                        .build());
+            }
+        }
+    }
+
+    @Benchmark
+    public byte[] booking() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(booking);
+    }
+
+    /** GET /api/bookings/user/{userId} and the admin booking list. */
+    @Benchmark
+    public byte[] bookingList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookings);
+    }
+
+    /** GET /api/schedules and search pages. */
+    @Benchmark
+    public byte[] scheduleList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(schedules);
+    }
+
+    /** GET /api/schedules/{id}/seats for a 50-seat bus. */
+    @Benchmark
+    public byte[] seatMap() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(seats);
+    }
+}
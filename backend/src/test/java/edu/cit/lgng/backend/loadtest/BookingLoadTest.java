@@ -0,0 +1,326 @@
+package edu.cit.lgng.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.cit.lgng.backend.config.JwtUtil;
+import edu.cit.lgng.backend.model.*;
+import edu.cit.lgng.backend.repository.*;
+import edu.cit.lgng.backend.service.SeatService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Holiday-rush load test: many concurrent users search schedules, reserve seats,
+ * create PayMongo intents and verify payment, against H2 and a stub PayMongo.
+ *
+ * Stub intents only succeed {@code loadtest.paymongo-settle-ms} after they are created, and the
+ * stub then sends a payment.paid webhook. Until then each user long-polls the intent status,
+ * so seats stay held while payments are pending and waiting clients are woken by the webhook.
+ *
+ * Excluded from the normal build. Run with:
+ * <pre>
+ * mvn -Ploadtest test -Dloadtest.users=1000 -Dloadtest.iterations=3 -Dloadtest.schedules=5 -Dloadtest.paymongo-settle-ms=2000
+ * </pre>
+ * Prints p50/p99 latency and throughput per endpoint and fails if any seat was sold twice.
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "jwt.secret=bG9hZHRlc3QtbG9hZHRlc3QtbG9hZHRlc3QtbG9hZHRlc3Q=",
+        "jwt.expiration=3600000",
+        "paymongo.secret-key=sk_test_stub",
+        "paymongo.public-key=pk_test_stub",
+        "spring.security.oauth2.client.registration.google.client-id=loadtest",
+        "spring.security.oauth2.client.registration.google.client-secret=loadtest",
+        "logging.level.edu.cit.lgng.backend=WARN"
+})
+class BookingLoadTest {
+
+    private static final int USERS = Integer.getInteger("loadtest.users", 200);
+    private static final int ITERATIONS = Integer.getInteger("loadtest.iterations", 3);
+    private static final int SCHEDULES = Integer.getInteger("loadtest.schedules", 5);
+    private static final int SEATS_PER_BOOKING = Integer.getInteger("loadtest.seats-per-booking", 2);
+    private static final double ABANDON_RATE = Double.parseDouble(System.getProperty("loadtest.abandon-rate", "0.1"));
+    private static final int CAPACITY = 41;
+    // Long-polls per payment before the user gives up waiting and verifies anyway
+    private static final int MAX_STATUS_WAITS = 3;
+
+    private static StubPayMongoServer payMongo;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired private RouteRepository routeRepo;
+    @Autowired private BusTypeRepository busTypeRepo;
+    @Autowired private BusRepository busRepo;
+    @Autowired private ScheduleRepository scheduleRepo;
+    @Autowired private UserRepository userRepo;
+    @Autowired private SeatService seatService;
+    @Autowired private JwtUtil jwtUtil;
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private ObjectMapper objectMapper;
+    @Autowired private MeterRegistry meterRegistry;
+
+    private final LoadStats stats = new LoadStats();
+    private HttpClient http;
+
+    @DynamicPropertySource
+    static void payMongoStub(DynamicPropertyRegistry registry) throws IOException {
+        payMongo = new StubPayMongoServer(
+                Long.getLong("loadtest.paymongo-latency-ms", 50),
+                Long.getLong("loadtest.paymongo-settle-ms", 1000));
+        registry.add("paymongo.base-url", payMongo::baseUrl);
+        registry.add("spring.datasource.hikari.maximum-pool-size", () -> Integer.getInteger("loadtest.db-pool", 20));
+    }
+
+    @AfterAll
+    static void stopStub() {
+        if (payMongo != null) {
+            payMongo.close();
+        }
+    }
+
+    @Test
+    void holidayRush() throws Exception {
+        List<User> users = seed();
+        payMongo.sendWebhooksTo("http://localhost:" + port + "/api/paymongo/webhook");
+        http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        long start = System.nanoTime();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (User user : users) {
+                String token = jwtUtil.generateToken(user);
+                pool.submit(() -> {
+                    for (int i = 0; i < ITERATIONS; i++) {
+                        bookingJourney(user, token);
+                    }
+                    return null;
+                });
+            }
+            pool.shutdown();
+            assertThat(pool.awaitTermination(30, TimeUnit.MINUTES)).isTrue();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long doubleBooked = countDoubleBookedSeats();
+        long counterDrift = countSchedulesWithSeatCounterDrift();
+        System.out.printf("%n== Load test: %d users x %d iterations, %d schedules of %d seats, %.1fs ==%n",
+                USERS, ITERATIONS, SCHEDULES, CAPACITY, elapsed / 1e9);
+        System.out.print(stats.report(elapsed));
+        System.out.printf("PayMongo stub requests: %d, webhooks sent: %d%n", payMongo.requestCount(), payMongo.webhookCount());
+        System.out.println(hikariReport());
+        System.out.printf("Double-booked seats: %d, schedules with availableSeats drift: %d%n%n", doubleBooked, counterDrift);
+
+        assertThat(doubleBooked).as("seats sold to more than one active booking").isZero();
+        assertThat(counterDrift).as("schedules whose availableSeats disagrees with the seats table").isZero();
+        assertThat(stats.ok("verify-payment")).isLessThanOrEqualTo((long) SCHEDULES * CAPACITY / SEATS_PER_BOOKING);
+    }
+
+    private void bookingJourney(User user, String token) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        JsonNode page = call("search", token, "GET", "/api/schedules/search?origin=" + encode("Cebu City")
+                + "&destination=" + encode("Bogo City") + "&size=20", null);
+        if (page == null || page.path("items").isEmpty()) {
+            return;
+        }
+        JsonNode items = page.path("items");
+        JsonNode schedule = items.get(random.nextInt(items.size()));
+        long scheduleId = schedule.path("id").asLong();
+
+        JsonNode seats = call("seats", token, "GET", "/api/schedules/" + scheduleId + "/seats", null);
+        if (seats == null) {
+            return;
+        }
+        List<String> available = new ArrayList<>();
+        seats.forEach(seat -> {
+            if ("AVAILABLE".equals(seat.path("status").asText())) {
+                available.add(seat.path("seatNumber").asText());
+            }
+        });
+        if (available.size() < SEATS_PER_BOOKING) {
+            return;
+        }
+        Collections.shuffle(available, random);
+        List<String> picked = available.subList(0, SEATS_PER_BOOKING);
+
+        BigDecimal amount = new BigDecimal(schedule.path("price").asText()).multiply(BigDecimal.valueOf(SEATS_PER_BOOKING));
+        JsonNode booking = call("create-booking", token, "POST", "/api/bookings", Map.of(
+                "userId", user.getId(),
+                "scheduleId", scheduleId,
+                "amount", amount,
+                "seatNumbers", picked));
+        if (booking == null || random.nextDouble() < ABANDON_RATE) {
+            return;
+        }
+
+        JsonNode intent = call("create-intent", token, "POST", "/api/paymongo/create-intent",
+                Map.of("bookingId", booking.path("id").asLong()));
+        if (intent == null) {
+            return;
+        }
+        String intentId = intent.path("id").asText();
+        awaitPayment(token, intentId, intent.path("status").asText());
+        call("verify-payment", token, "POST", "/api/paymongo/verify-payment/" + intentId, null);
+    }
+
+    /**
+     * Long-polls the intent status, as the payment page does, until it succeeds.
+     */
+    private void awaitPayment(String token, String intentId, String status) {
+        for (int i = 0; i < MAX_STATUS_WAITS && !"succeeded".equals(status); i++) {
+            JsonNode current = call("wait-payment", token, "GET", "/api/paymongo/intent/" + intentId
+                    + "/status/wait?since=" + encode(status) + "&timeoutSeconds=10", null);
+            if (current == null) {
+                return;
+            }
+            status = current.path("status").asText();
+        }
+    }
+
+    /**
+     * Sends one request, records its latency and returns the parsed body on 2xx, or null otherwise.
+     */
+    private JsonNode call(String operation, String token, String method, String path, Object body) {
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json");
+            request.method(method, body == null
+                    ? HttpRequest.BodyPublishers.noBody()
+                    : HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+
+            long start = System.nanoTime();
+            HttpResponse<byte[]> response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            stats.record(operation, System.nanoTime() - start, response.statusCode());
+
+            if (response.statusCode() / 100 != 2) {
+                return null;
+            }
+            return objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            stats.record(operation, 0, 599);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private List<User> seed() {
+        Route route = routeRepo.save(Route.builder()
+                .origin("Cebu City").destination("Bogo City").distanceKm(101).durationMinutes(180).build());
+        BusType busType = busTypeRepo.save(BusType.builder()
+                .name("Standard").arrangement("2-2").capacity(CAPACITY).build());
+
+        for (int i = 0; i < SCHEDULES; i++) {
+            Bus bus = busRepo.save(Bus.builder()
+                    .busNumber("LT-" + (100 + i)).plateNo("LT " + (1000 + i))
+                    .busType(busType).status(Bus.Status.ACTIVE).build());
+            Schedule schedule = scheduleRepo.save(Schedule.builder()
+                    .route(route).bus(bus)
+                    .travelDate(LocalDate.now().plusDays(1 + i / 4))
+                    .departureTime(LocalTime.of(6 + (i % 4) * 3, 0))
+                    .arrivalTime(LocalTime.of(9 + (i % 4) * 3, 0))
+                    .price(new BigDecimal("250.00"))
+                    .availableSeats(CAPACITY)
+                    .createdAt(Instant.now())
+                    .build());
+            seatService.generateSeats(schedule.getId(), 0, 0);
+        }
+
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(User.builder()
+                    .name("Load User " + i)
+                    .email("load" + i + "@example.com")
+                    .passwordHash("n/a")
+                    .role(User.Role.USER)
+                    .build());
+        }
+        return userRepo.saveAll(users);
+    }
+
+    /**
+     * Seats that belong to more than one booking that is still PENDING or CONFIRMED.
+     */
+    private long countDoubleBookedSeats() {
+        Long count = jdbc.queryForObject("""
+                SELECT COUNT(*) FROM (
+                    SELECT bs.schedule_id, bs.seat_number
+                    FROM booking_seats bs JOIN bookings b ON b.id = bs.booking_id
+                    WHERE b.status NOT IN ('CANCELLED', 'REFUND_REQUIRED')
+                    GROUP BY bs.schedule_id, bs.seat_number
+                    HAVING COUNT(*) > 1
+                ) dup
+                """, Long.class);
+        return count != null ? count : 0;
+    }
+
+    private long countSchedulesWithSeatCounterDrift() {
+        Long count = jdbc.queryForObject("""
+                SELECT COUNT(*) FROM schedules s
+                WHERE s.available_seats <> (
+                    SELECT COUNT(*) FROM seats st WHERE st.schedule_id = s.id AND st.status = 'AVAILABLE'
+                )
+                """, Long.class);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * How long requests held and waited for database connections; holding one across a PayMongo
+     * round trip shows up as usage close to loadtest.paymongo-latency-ms.
+     */
+    private String hikariReport() {
+        Timer usage = meterRegistry.find("hikaricp.connections.usage").timer();
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+        if (usage == null || acquire == null) {
+            return "Hikari metrics not available";
+        }
+        return String.format("DB connections: held mean %.1f ms / max %.1f ms, waited mean %.1f ms / max %.1f ms",
+                usage.mean(TimeUnit.MILLISECONDS), usage.max(TimeUnit.MILLISECONDS),
+                acquire.mean(TimeUnit.MILLISECONDS), acquire.max(TimeUnit.MILLISECONDS));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
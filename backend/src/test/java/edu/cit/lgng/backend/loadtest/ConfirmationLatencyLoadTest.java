@@ -0,0 +1,181 @@
+package edu.cit.lgng.backend.loadtest;
+
+import edu.cit.lgng.backend.model.*;
+import edu.cit.lgng.backend.repository.*;
+import edu.cit.lgng.backend.service.BookingService;
+import edu.cit.lgng.backend.service.SeatService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Regression benchmark for booking confirmation: confirmBooking must cost the same whether
+ * booking_seats holds thousands of rows or millions.
+ *
+ * The table is grown step by step with bookings on another schedule; at each size a fresh
+ * schedule gets a batch of PENDING bookings, and each confirmation is timed. Fails if the
+ * median at the largest size is more than {@code loadtest.confirm.max-slowdown} times the
+ * median at the smallest.
+ *
+ * Excluded from the normal build. Run with:
+ * <pre>
+ * mvn -Ploadtest test -Dtest=ConfirmationLatencyLoadTest -Dloadtest.confirm.sizes=10000,1000000,3000000
+ * </pre>
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:confirmlatency;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "jwt.secret=bG9hZHRlc3QtbG9hZHRlc3QtbG9hZHRlc3QtbG9hZHRlc3Q=",
+        "jwt.expiration=3600000",
+        "paymongo.secret-key=sk_test_stub",
+        "paymongo.public-key=pk_test_stub",
+        "spring.security.oauth2.client.registration.google.client-id=loadtest",
+        "spring.security.oauth2.client.registration.google.client-secret=loadtest",
+        "logging.level.edu.cit.lgng.backend=WARN"
+})
+class ConfirmationLatencyLoadTest {
+
+    private static final long[] SIZES = Arrays.stream(System.getProperty("loadtest.confirm.sizes", "10000,250000,1000000")
+            .split(",")).mapToLong(s -> Long.parseLong(s.trim())).toArray();
+    private static final double MAX_SLOWDOWN = Double.parseDouble(System.getProperty("loadtest.confirm.max-slowdown", "3.0"));
+    // Grid layout of 10 rows x 4 columns (41 and 53 would get the custom bus layouts)
+    private static final int ROWS = 10;
+    private static final int COLS = 4;
+    private static final int CAPACITY = ROWS * COLS;
+    private static final int SEATS_PER_BOOKING = 2;
+    // Filler bookings are inserted with this many seats each
+    private static final int FILLER_SEATS_PER_BOOKING = 4;
+
+    @Autowired private RouteRepository routeRepo;
+    @Autowired private BusTypeRepository busTypeRepo;
+    @Autowired private BusRepository busRepo;
+    @Autowired private ScheduleRepository scheduleRepo;
+    @Autowired private UserRepository userRepo;
+    @Autowired private SeatService seatService;
+    @Autowired private BookingService bookingService;
+    @Autowired private JdbcTemplate jdbc;
+
+    private Route route;
+    private BusType busType;
+    private User user;
+    private int schedules;
+
+    @Test
+    void confirmationLatencyStaysFlatAsBookingSeatsGrows() {
+        route = routeRepo.save(Route.builder()
+                .origin("Cebu City").destination("Bogo City").distanceKm(101).durationMinutes(180).build());
+        busType = busTypeRepo.save(BusType.builder()
+                .name("Standard").arrangement("2-2").capacity(CAPACITY).build());
+        user = userRepo.save(User.builder()
+                .name("Bench User").email("bench@example.com").passwordHash("n/a").role(User.Role.USER).build());
+        Schedule filler = newSchedule();
+
+        // Warm up the JIT, connection pool and statement caches before anything is recorded
+        timeConfirmations(newSchedule());
+
+        Map<Long, long[]> latencies = new LinkedHashMap<>();
+        for (long size : SIZES) {
+            growBookingSeats(filler, size);
+            latencies.put(size, timeConfirmations(newSchedule()));
+        }
+
+        System.out.printf("%n== confirmBooking latency by booking_seats size ==%n%12s %10s %10s%n", "rows", "p50 ms", "p99 ms");
+        latencies.forEach((size, sorted) -> System.out.printf("%12d %10.2f %10.2f%n",
+                size, percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6));
+
+        long smallest = percentile(latencies.get(SIZES[0]), 0.50);
+        long largest = percentile(latencies.get(SIZES[SIZES.length - 1]), 0.50);
+        System.out.printf("Slowdown %d -> %d rows: %.2fx%n%n", SIZES[0], SIZES[SIZES.length - 1], (double) largest / smallest);
+        assertThat((double) largest)
+                .as("median confirmBooking at %d booking_seats rows vs %d rows", SIZES[SIZES.length - 1], SIZES[0])
+                .isLessThanOrEqualTo(smallest * MAX_SLOWDOWN);
+    }
+
+    /**
+     * Books every seat of the schedule and times each confirmation. Returns sorted nanoseconds.
+     */
+    private long[] timeConfirmations(Schedule schedule) {
+        List<Booking> pending = new ArrayList<>();
+        for (int seat = 0; seat + SEATS_PER_BOOKING <= CAPACITY; seat += SEATS_PER_BOOKING) {
+            List<String> seatNumbers = jdbc.queryForList(
+                    "SELECT seat_number FROM seats WHERE schedule_id = ? ORDER BY id LIMIT ? OFFSET ?",
+                    String.class, schedule.getId(), SEATS_PER_BOOKING, seat);
+            assertThat(seatNumbers).as("seats %d-%d of schedule %d", seat, seat + SEATS_PER_BOOKING, schedule.getId())
+                    .hasSize(SEATS_PER_BOOKING);
+            pending.add(bookingService.createBooking(user.getId(), schedule.getId(),
+                    schedule.getPrice().multiply(BigDecimal.valueOf(SEATS_PER_BOOKING)), seatNumbers));
+        }
+
+        long[] nanos = new long[pending.size()];
+        for (int i = 0; i < pending.size(); i++) {
+            Booking booking = pending.get(i);
+            long start = System.nanoTime();
+            Booking confirmed = bookingService.confirmBooking(booking.getId(), "bench-" + booking.getId(), booking.getAmount());
+            nanos[i] = System.nanoTime() - start;
+            assertThat(confirmed.getStatus()).isEqualTo(Booking.Status.CONFIRMED);
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    /**
+     * Adds confirmed filler bookings to {@code filler} until booking_seats holds {@code target} rows.
+     */
+    private void growBookingSeats(Schedule filler, long target) {
+        Long current = jdbc.queryForObject("SELECT COUNT(*) FROM booking_seats", Long.class);
+        long bookings = (target - current + FILLER_SEATS_PER_BOOKING - 1) / FILLER_SEATS_PER_BOOKING;
+        for (long done = 0; done < bookings; ) {
+            long batch = Math.min(100_000, bookings - done);
+            Long firstId = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM bookings", Long.class);
+            jdbc.update("""
+                    INSERT INTO bookings (user_id, schedule_id, amount, status, created_at)
+                    SELECT ?, ?, 500.00, 'CONFIRMED', CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, ?)
+                    """, user.getId(), filler.getId(), batch);
+            jdbc.update("""
+                    INSERT INTO booking_seats (booking_id, schedule_id, seat_number)
+                    SELECT b.id, b.schedule_id, CONCAT('F', r.X) FROM bookings b CROSS JOIN SYSTEM_RANGE(1, ?) r
+                    WHERE b.id >= ? AND b.schedule_id = ?
+                    """, FILLER_SEATS_PER_BOOKING, firstId, filler.getId());
+            done += batch;
+        }
+    }
+
+    private Schedule newSchedule() {
+        int n = schedules++;
+        Bus bus = busRepo.save(Bus.builder()
+                .busNumber("CB-" + (100 + n)).plateNo("CB " + (1000 + n))
+                .busType(busType).status(Bus.Status.ACTIVE).build());
+        Schedule schedule = scheduleRepo.save(Schedule.builder()
+                .route(route).bus(bus)
+                .travelDate(LocalDate.now().plusDays(1 + n))
+                .departureTime(LocalTime.of(6, 0))
+                .arrivalTime(LocalTime.of(9, 0))
+                .price(new BigDecimal("250.00"))
+                .availableSeats(CAPACITY)
+                .createdAt(Instant.now())
+                .build());
+        seatService.generateSeats(schedule.getId(), ROWS, COLS);
+        return schedule;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
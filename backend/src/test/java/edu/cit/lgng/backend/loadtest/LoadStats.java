@@ -0,0 +1,69 @@
+package edu.cit.lgng.backend.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-operation latency samples and outcome counters for a load test run.
+ */
+class LoadStats {
+
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+
+    void record(String operation, long nanos, int status) {
+        Operation op = operations.computeIfAbsent(operation, k -> new Operation());
+        op.latencies.add(nanos);
+        if (status >= 200 && status < 300) {
+            op.ok.increment();
+        } else if (status == 409) {
+            op.conflicts.increment();
+        } else {
+            op.errors.increment();
+        }
+    }
+
+    long count(String operation) {
+        Operation op = operations.get(operation);
+        return op == null ? 0 : op.latencies.size();
+    }
+
+    long ok(String operation) {
+        Operation op = operations.get(operation);
+        return op == null ? 0 : op.ok.sum();
+    }
+
+    String report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-16s %8s %8s %8s %8s %10s %10s %10s%n",
+                "operation", "count", "ok", "409", "errors", "p50 ms", "p99 ms", "req/s"));
+        for (Map.Entry<String, Operation> entry : new TreeMap<>(operations).entrySet()) {
+            Operation op = entry.getValue();
+            long[] sorted = op.latencies.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            sb.append(String.format("%-16s %8d %8d %8d %8d %10.1f %10.1f %10.1f%n",
+                    entry.getKey(), sorted.length, op.ok.sum(), op.conflicts.sum(), op.errors.sum(),
+                    percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6, sorted.length / seconds));
+        }
+        return sb.toString();
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static final class Operation {
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+    }
+}
@@ -0,0 +1,197 @@
+package edu.cit.lgng.backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Minimal local stand-in for the PayMongo payment intent API.
+ *
+ * POST /payment_intents creates an intent; GET /payment_intents/{id} reports it as
+ * awaiting_payment_method until {@code settleMs} after creation, and as succeeded from then on,
+ * like a customer taking a while to pay. When a webhook URL is set, a payment.paid event is
+ * posted to it as each intent settles, which is what wakes long-polling clients in the app.
+ * An optional fixed delay on every request simulates the provider's round trip.
+ */
+class StubPayMongoServer implements AutoCloseable {
+
+    private static final String PREFIX = "/payment_intents";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Intent> intents = new ConcurrentHashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder webhooksSent = new LongAdder();
+    private final long latencyMs;
+    private final long settleMs;
+    private final HttpServer server;
+    private final ScheduledExecutorService settler = Executors.newSingleThreadScheduledExecutor();
+    private final HttpClient webhookClient = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    private volatile String webhookUrl;
+
+    private record Intent(Map<String, Object> attributes, long settlesAt) {
+        boolean settled() {
+            return System.currentTimeMillis() >= settlesAt;
+        }
+    }
+
+    StubPayMongoServer(long latencyMs, long settleMs) throws IOException {
+        this.latencyMs = latencyMs;
+        this.settleMs = settleMs;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext(PREFIX, this::handle);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.start();
+    }
+
+    /**
+     * Posts a payment.paid event to {@code url} whenever an intent settles from now on.
+     */
+    void sendWebhooksTo(String url) {
+        this.webhookUrl = url;
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    long requestCount() {
+        return requests.sum();
+    }
+
+    long webhookCount() {
+        return webhooksSent.sum();
+    }
+
+    @Override
+    public void close() {
+        settler.shutdownNow();
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.increment();
+        try (exchange) {
+            simulateLatency();
+            String path = exchange.getRequestURI().getPath();
+            if ("POST".equals(exchange.getRequestMethod()) && path.equals(PREFIX)) {
+                respond(exchange, 200, createIntent(exchange.getRequestBody()));
+            } else if ("GET".equals(exchange.getRequestMethod()) && path.startsWith(PREFIX + "/")) {
+                String id = path.substring(PREFIX.length() + 1);
+                Intent intent = intents.get(id);
+                if (intent == null) {
+                    respond(exchange, 404, Map.of("errors", List.of(Map.of("code", "resource_not_found"))));
+                } else {
+                    respond(exchange, 200, intentBody(id, intent));
+                }
+            } else {
+                respond(exchange, 404, Map.of("errors", List.of(Map.of("code", "route_not_found"))));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> createIntent(InputStream body) throws IOException {
+        Map<String, Object> request = objectMapper.readValue(body, Map.class);
+        Map<String, Object> attributes = (Map<String, Object>) ((Map<String, Object>) request.get("data")).get("attributes");
+
+        long n = ids.incrementAndGet();
+        String id = "pi_stub_" + n;
+        Map<String, Object> stored = new HashMap<>();
+        stored.put("amount", attributes.get("amount"));
+        stored.put("currency", attributes.get("currency"));
+        stored.put("description", attributes.get("description"));
+        stored.put("payment_method_allowed", attributes.get("payment_method_allowed"));
+        stored.put("metadata", attributes.get("metadata"));
+        stored.put("client_key", id + "_client_stub");
+        Intent intent = new Intent(Collections.unmodifiableMap(stored), System.currentTimeMillis() + settleMs);
+        intents.put(id, intent);
+
+        if (webhookUrl != null) {
+            settler.schedule(() -> sendPaymentPaid(id, n, intent), settleMs, TimeUnit.MILLISECONDS);
+        }
+        return intentBody(id, intent);
+    }
+
+    private Map<String, Object> intentBody(String id, Intent intent) {
+        Map<String, Object> attributes = new HashMap<>(intent.attributes());
+        if (intent.settled()) {
+            attributes.put("status", "succeeded");
+            attributes.put("payments", List.of(Map.of("id", paymentId(id))));
+        } else {
+            attributes.put("status", "awaiting_payment_method");
+        }
+        return Map.of("data", Map.of("id", id, "type", "payment_intent", "attributes", attributes));
+    }
+
+    private void sendPaymentPaid(String intentId, long n, Intent intent) {
+        Map<String, Object> event = Map.of("data", Map.of(
+                "id", "evt_stub_" + n,
+                "type", "event",
+                "attributes", Map.of(
+                        "type", "payment.paid",
+                        "data", Map.of(
+                                "id", paymentId(intentId),
+                                "type", "payment",
+                                "attributes", Map.of(
+                                        "amount", intent.attributes().get("amount"),
+                                        "payment_intent_id", intentId,
+                                        "metadata", intent.attributes().get("metadata")))
+                )));
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(webhookUrl))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(event)))
+                    .build();
+            webhookClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenRun(webhooksSent::increment);
+        } catch (IOException e) {
+            // Not delivered; clients still see the intent settle when they poll
+        }
+    }
+
+    private static String paymentId(String intentId) {
+        return intentId.replace("pi_", "pay_");
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+
+    private void simulateLatency() {
+        if (latencyMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package edu.cit.lgng.backend.service;
+
+import edu.cit.lgng.backend.model.Seat;
+import edu.cit.lgng.backend.repository.SeatRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class SeatAvailabilityIndexTest {
+
+    private static final long SCHEDULE = 1L;
+    private static final int COLS = 4;
+    // 40 seats: spans two 32-seat words
+    private static final int SEATS = 10 * COLS;
+
+    private final SeatRepository seatRepo = mock(SeatRepository.class);
+    // What the seats table holds; the index must never end up behind it
+    private final AtomicReferenceArray<Seat.Status> db = new AtomicReferenceArray<>(SEATS);
+    private SeatAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < SEATS; i++) {
+            db.set(i, Seat.Status.AVAILABLE);
+        }
+        when(seatRepo.findByScheduleId(SCHEDULE)).thenAnswer(invocation -> dbSeats());
+        index = new SeatAvailabilityIndex(seatRepo);
+        ReflectionTestUtils.setField(index, "idleTtlMs", 60_000L);
+    }
+
+    @Test
+    void servesTransitionsFromMemory() {
+        assertThat(status(0)).isEqualTo(Seat.Status.AVAILABLE);
+
+        assertThat(index.transition(SCHEDULE, List.of(seatNumber(0), seatNumber(37)),
+                Seat.Status.AVAILABLE, Seat.Status.RESERVED)).isEqualTo(2);
+
+        assertThat(status(0)).isEqualTo(Seat.Status.RESERVED);
+        assertThat(status(37)).isEqualTo(Seat.Status.RESERVED);
+        assertThat(status(1)).isEqualTo(Seat.Status.AVAILABLE);
+        verify(seatRepo, times(1)).findByScheduleId(SCHEDULE);
+    }
+
+    @Test
+    void transitionFromWrongStatusDropsTheMap() {
+        index.getSeats(SCHEDULE);
+        db.set(0, Seat.Status.OCCUPIED);
+
+        assertThat(index.transition(SCHEDULE, List.of(seatNumber(0)), Seat.Status.RESERVED, Seat.Status.AVAILABLE)).isZero();
+
+        assertThat(status(0)).isEqualTo(Seat.Status.OCCUPIED);
+        verify(seatRepo, times(2)).findByScheduleId(SCHEDULE);
+    }
+
+    @Test
+    void reconcileCorrectsDrift() {
+        index.getSeats(SCHEDULE);
+        db.set(5, Seat.Status.OCCUPIED);
+        db.set(33, Seat.Status.RESERVED);
+
+        index.reconcile();
+
+        assertThat(status(5)).isEqualTo(Seat.Status.OCCUPIED);
+        assertThat(status(33)).isEqualTo(Seat.Status.RESERVED);
+    }
+
+    @Test
+    void readAfterTransitionSeesItWhileOthersAreSnapshotting() throws Exception {
+        index.getSeats(SCHEDULE);
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService readers = Executors.newFixedThreadPool(4);
+        List<Future<?>> running = new ArrayList<>();
+        try {
+            for (int r = 0; r < 4; r++) {
+                running.add(readers.submit(() -> {
+                    while (!done.get()) {
+                        index.getSeats(SCHEDULE);
+                    }
+                }));
+            }
+            for (int round = 0; round < 2000; round++) {
+                Seat.Status from = round % 2 == 0 ? Seat.Status.AVAILABLE : Seat.Status.RESERVED;
+                Seat.Status to = round % 2 == 0 ? Seat.Status.RESERVED : Seat.Status.AVAILABLE;
+                for (int i = 0; i < SEATS; i++) {
+                    assertThat(index.transition(SCHEDULE, List.of(seatNumber(i)), from, to)).isEqualTo(1);
+                    assertThat(status(i)).as("seat %s in round %d", seatNumber(i), round).isEqualTo(to);
+                }
+            }
+        } finally {
+            done.set(true);
+            readers.shutdown();
+        }
+        assertThat(readers.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        for (Future<?> reader : running) {
+            reader.get();
+        }
+    }
+
+    @Test
+    void reconcileNeverUndoesACommittedTransition() throws Exception {
+        index.getSeats(SCHEDULE);
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService reconciler = Executors.newSingleThreadExecutor();
+        Future<?> running = reconciler.submit(() -> {
+            while (!done.get()) {
+                index.reconcile();
+            }
+        });
+        try {
+            for (int round = 0; round < 100; round++) {
+                Seat.Status from = round % 2 == 0 ? Seat.Status.AVAILABLE : Seat.Status.OCCUPIED;
+                Seat.Status to = round % 2 == 0 ? Seat.Status.OCCUPIED : Seat.Status.AVAILABLE;
+                for (int i = 0; i < SEATS; i++) {
+                    // Commit, then apply to the index as the after-commit hook does
+                    db.set(i, to);
+                    index.transition(SCHEDULE, List.of(seatNumber(i)), from, to);
+                    assertThat(status(i)).as("seat %s in round %d", seatNumber(i), round).isEqualTo(to);
+                }
+            }
+        } finally {
+            done.set(true);
+            reconciler.shutdown();
+        }
+        running.get(10, TimeUnit.SECONDS);
+
+        index.reconcile();
+        List<Seat> seats = index.getSeats(SCHEDULE);
+        for (int i = 0; i < SEATS; i++) {
+            assertThat(seats.get(i).getStatus()).isEqualTo(db.get(i));
+        }
+    }
+
+    private Seat.Status status(int i) {
+        return index.getSeats(SCHEDULE).get(i).getStatus();
+    }
+
+    private List<Seat> dbSeats() {
+        List<Seat> seats = new ArrayList<>(SEATS);
+        for (int i = 0; i < SEATS; i++) {
+            seats.add(Seat.builder()
+                    .id(i + 1L)
+                    .seatNumber(seatNumber(i))
+                    .rowIndex(i / COLS)
+                    .colIndex(i % COLS)
+                    .seatType("STANDARD")
+                    .status(db.get(i))
+                    .build());
+        }
+        return seats;
+    }
+
+    private static String seatNumber(int i) {
+        return (char) ('A' + i / COLS) + String.valueOf(i % COLS + 1);
+    }
+}
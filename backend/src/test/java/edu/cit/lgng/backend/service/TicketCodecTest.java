@@ -0,0 +1,172 @@
+package edu.cit.lgng.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TicketCodecTest {
+
+    private final TicketCodec codec = new TicketCodec("dGVzdC1zaWduaW5nLWtleS10ZXN0LXNpZ25pbmcta2V5");
+
+    @Test
+    void roundTripsSeatLayouts() {
+        assertRoundTrip(1L, 1L, List.of("A1"));
+        assertRoundTrip(7L, 3L, List.of("A1", "A2"));
+        assertRoundTrip(42L, 9L, List.of("C4", "D1", "D4", "K2"));
+        // One seat per row, widest possible row
+        assertRoundTrip(5L, 5L, List.of("A1", "M128", "Z255"));
+        assertRoundTrip(8L, 2L, List.of());
+    }
+
+    @Test
+    void roundTripsIdsThatNeedSeveralVarintBytes() {
+        // 2^14 is the first value that takes three varint bytes
+        assertRoundTrip(16_384L, 16_385L, List.of("B3"));
+        assertRoundTrip(2_097_152L, 300_000L, List.of("E1", "E2"));
+        assertRoundTrip(5_000_000_000L, 1L, List.of("A4"));
+        assertRoundTrip(Long.MAX_VALUE, Long.MAX_VALUE, List.of("Z1"));
+    }
+
+    @Test
+    void rejectsUnsupportedSeatNumbers() {
+        assertThatThrownBy(() -> codec.issue(1L, 1L, List.of("A0"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> codec.issue(1L, 1L, List.of("A256"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> codec.issue(1L, 1L, List.of("a1"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void base45MatchesTheRfcExamples() {
+        // RFC 9285 section 4.3 / 4.4
+        assertThat(TicketCodec.base45Encode(ascii("AB"))).isEqualTo("BB8");
+        assertThat(TicketCodec.base45Encode(ascii("Hello!!"))).isEqualTo("%69 VD92EX0");
+        assertThat(TicketCodec.base45Encode(ascii("base-45"))).isEqualTo("UJCLQE7W581");
+        assertThat(TicketCodec.base45Decode("QED8WEX0")).isEqualTo(ascii("ietf!"));
+    }
+
+    @Test
+    void base45RoundTripsOddAndEvenLengths() {
+        for (int length = 0; length <= 9; length++) {
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = (byte) (0xFF - i * 31);
+            }
+            String encoded = TicketCodec.base45Encode(bytes);
+            // A single trailing byte becomes two characters
+            assertThat(encoded).hasSize(length / 2 * 3 + length % 2 * 2);
+            assertThat(TicketCodec.base45Decode(encoded)).isEqualTo(bytes);
+        }
+        assertThat(TicketCodec.base45Encode(new byte[]{(byte) 0xFF})).isEqualTo("U5");
+        assertThat(TicketCodec.base45Decode("U5")).containsExactly((byte) 0xFF);
+    }
+
+    @Test
+    void base45RejectsInvalidInput() {
+        // 3k+1 characters can never come from the encoder
+        assertThatThrownBy(() -> TicketCodec.base45Decode("0")).hasMessage("Invalid ticket");
+        assertThatThrownBy(() -> TicketCodec.base45Decode("BB80")).hasMessage("Invalid ticket");
+        // Characters outside the alphabet, including lower case
+        assertThatThrownBy(() -> TicketCodec.base45Decode("bb8")).hasMessage("Invalid ticket");
+        assertThatThrownBy(() -> TicketCodec.base45Decode("BB#")).hasMessage("Invalid ticket");
+        // Triplet above 0xFFFF, tail above 0xFF
+        assertThatThrownBy(() -> TicketCodec.base45Decode("GGW")).hasMessage("Invalid ticket");
+        assertThatThrownBy(() -> TicketCodec.base45Decode("::")).hasMessage("Invalid ticket");
+    }
+
+    @Test
+    void rejectsTokensWithTheWrongPrefixOrLength() {
+        String token = codec.issue(12L, 3L, List.of("A1"));
+
+        assertThatThrownBy(() -> codec.verify(null)).hasMessage("Not a ticket");
+        assertThatThrownBy(() -> codec.verify("BM-000012|Cebu City")).hasMessage("Not a ticket");
+        assertThatThrownBy(() -> codec.verify(token.substring(1))).hasMessage("Not a ticket");
+        // Pad the Base45 part to 3k+1 characters, a length the encoder never produces
+        int length = token.length() - TicketCodec.PREFIX.length();
+        String threeKPlusOne = token + "0".repeat((4 - length % 3) % 3);
+        assertThatThrownBy(() -> codec.verify(threeKPlusOne)).hasMessage("Invalid ticket");
+        assertThatThrownBy(() -> codec.verify(token.toLowerCase())).hasMessage("Not a ticket");
+        assertThatThrownBy(() -> codec.verify(TicketCodec.PREFIX + token.substring(4).toLowerCase()))
+                .hasMessage("Invalid ticket");
+        assertThatThrownBy(() -> codec.verify(TicketCodec.PREFIX + "BB8")).hasMessage("Invalid ticket");
+    }
+
+    @Test
+    void explainsTheOldJsonPayload() {
+        assertThatThrownBy(() -> codec.verify("{\"bookingId\":\"BM-000012\",\"status\":\"CONFIRMED\"}"))
+                .hasMessageStartingWith("Old ticket format");
+    }
+
+    @Test
+    void rejectsTamperedMacOrBody() {
+        byte[] bytes = TicketCodec.base45Decode(codec.issue(1234L, 56L, List.of("B1", "B2")).substring(4));
+
+        byte[] badMac = bytes.clone();
+        badMac[badMac.length - 1] ^= 0x01;
+        assertThatThrownBy(() -> codec.verify(TicketCodec.PREFIX + TicketCodec.base45Encode(badMac)))
+                .hasMessage("Invalid ticket signature");
+
+        byte[] badBody = bytes.clone();
+        // First varint byte: a different booking ID under the original MAC
+        badBody[0] ^= 0x01;
+        assertThatThrownBy(() -> codec.verify(TicketCodec.PREFIX + TicketCodec.base45Encode(badBody)))
+                .hasMessage("Invalid ticket signature");
+
+        byte[] extraSeat = bytes.clone();
+        extraSeat[extraSeat.length - 9] |= 0x40;
+        assertThatThrownBy(() -> codec.verify(TicketCodec.PREFIX + TicketCodec.base45Encode(extraSeat)))
+                .hasMessage("Invalid ticket signature");
+    }
+
+    @Test
+    void rejectsTokensSignedWithAnotherKey() {
+        TicketCodec other = new TicketCodec("b3RoZXItc2lnbmluZy1rZXktb3RoZXItc2lnbmluZy1rZXk=");
+        String token = other.issue(1L, 1L, List.of("A1"));
+
+        assertThatThrownBy(() -> codec.verify(token)).hasMessage("Invalid ticket signature");
+    }
+
+    @Test
+    void tokensMayContainSpacesAndUrlSpecialCharactersThatMustBeKept() {
+        // Find a token using the Base45 characters that trimming or URL decoding would change
+        String token = null;
+        for (long id = 1; id < 10_000 && token == null; id++) {
+            String candidate = codec.issue(id, 1L, List.of("A1"));
+            if (candidate.contains(" ") && candidate.contains("+")) {
+                token = candidate;
+            }
+        }
+        assertThat(token).as("token with ' ' and '+'").isNotNull();
+
+        TicketCodec.Ticket ticket = codec.verify(token);
+        assertThat(ticket.seatNumbers()).containsExactly("A1");
+
+        String formDecoded = token.replace('+', ' ');
+        assertThatThrownBy(() -> codec.verify(formDecoded)).isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void fingerprintIsStableAndShort() {
+        String token = codec.issue(99L, 7L, List.of("C3"));
+
+        assertThat(TicketCodec.fingerprint(token)).isEqualTo(TicketCodec.fingerprint(token)).hasSize(12);
+        assertThat(TicketCodec.fingerprint(token)).isNotEqualTo(TicketCodec.fingerprint(codec.issue(100L, 7L, List.of("C3"))));
+    }
+
+    private void assertRoundTrip(long bookingId, long scheduleId, List<String> seats) {
+        String token = codec.issue(bookingId, scheduleId, seats);
+        assertThat(token).startsWith(TicketCodec.PREFIX);
+        assertThat(token.substring(TicketCodec.PREFIX.length())).matches("[0-9A-Z $%*+\\-./:]*");
+
+        TicketCodec.Ticket ticket = codec.verify(token);
+        assertThat(ticket.bookingId()).isEqualTo(bookingId);
+        assertThat(ticket.scheduleId()).isEqualTo(scheduleId);
+        assertThat(ticket.seatNumbers()).containsExactlyInAnyOrderElementsOf(seats);
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
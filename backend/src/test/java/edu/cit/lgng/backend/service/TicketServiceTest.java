@@ -0,0 +1,259 @@
+package edu.cit.lgng.backend.service;
+
+import edu.cit.lgng.backend.dto.TicketDto.*;
+import edu.cit.lgng.backend.model.Booking;
+import edu.cit.lgng.backend.model.Route;
+import edu.cit.lgng.backend.model.Schedule;
+import edu.cit.lgng.backend.model.TicketCheckIn;
+import edu.cit.lgng.backend.repository.BookingRepository;
+import edu.cit.lgng.backend.repository.BookingSeatRepository;
+import edu.cit.lgng.backend.repository.ScheduleRepository;
+import edu.cit.lgng.backend.repository.TicketCheckInRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TicketServiceTest {
+
+    private static final long SCHEDULE = 10L;
+    private static final long OTHER_SCHEDULE = 11L;
+
+    private final ScheduleRepository scheduleRepo = mock(ScheduleRepository.class);
+    private final BookingRepository bookingRepo = mock(BookingRepository.class);
+    private final BookingSeatRepository bookingSeatRepo = mock(BookingSeatRepository.class);
+    private final TicketCheckInRepository checkInRepo = mock(TicketCheckInRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final TicketCodec codec = new TicketCodec("dGVzdC1zaWduaW5nLWtleS10ZXN0LXNpZ25pbmcta2V5");
+    // Every batch of check-ins handed to saveAllAndFlush
+    private final List<List<TicketCheckIn>> saved = new ArrayList<>();
+    private TicketService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        service = new TicketService(scheduleRepo, bookingRepo, bookingSeatRepo,
+                checkInRepo, codec, transactionTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "maxBatch", 100);
+
+        doAnswer(invocation -> {
+            ((Consumer<TransactionStatus>) invocation.getArgument(0)).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(checkInRepo.saveAllAndFlush(anyIterable())).thenAnswer(invocation -> {
+            List<TicketCheckIn> batch = new ArrayList<>();
+            ((Iterable<TicketCheckIn>) invocation.getArgument(0)).forEach(batch::add);
+            saved.add(batch);
+            return batch;
+        });
+        when(checkInRepo.findByBookingIdIn(anyCollection())).thenReturn(List.of());
+    }
+
+    @Test
+    void acceptsAConfirmedTicketOnItsOwnTrip() {
+        bookings(state(1L, SCHEDULE, Booking.Status.CONFIRMED));
+        Instant scannedAt = Instant.parse("2026-10-18T06:01:00Z");
+
+        CheckInBatchResponse response = service.checkIn(batch(
+                Scan.builder().token(codec.issue(1L, SCHEDULE, List.of("A1", "A2"))).scannedAt(scannedAt).build()), "conductor@example.com");
+
+        assertThat(response.getAccepted()).isEqualTo(1);
+        ScanResult result = response.getResults().get(0);
+        assertThat(result.getResult()).isEqualTo(CheckInResult.ACCEPTED);
+        assertThat(result.getSeatNumbers()).containsExactly("A1", "A2");
+        assertThat(result.getCheckedInAt()).isEqualTo(scannedAt);
+        assertThat(saved).hasSize(1);
+        assertThat(saved.get(0)).singleElement().satisfies(checkIn -> {
+            assertThat(checkIn.getBookingId()).isEqualTo(1L);
+            assertThat(checkIn.getScheduleId()).isEqualTo(SCHEDULE);
+            assertThat(checkIn.getCheckedInBy()).isEqualTo("conductor@example.com");
+            assertThat(checkIn.getDeviceId()).isEqualTo("device-1");
+        });
+    }
+
+    @Test
+    void secondScanOfATicketInTheSameBatchIsDuplicate() {
+        bookings(state(1L, SCHEDULE, Booking.Status.CONFIRMED));
+        String token = codec.issue(1L, SCHEDULE, List.of("B1"));
+        Instant first = Instant.parse("2026-10-18T06:01:00Z");
+
+        CheckInBatchResponse response = service.checkIn(batch(
+                Scan.builder().token(token).scannedAt(first).build(),
+                Scan.builder().bookingId(1L).scannedAt(first.plusSeconds(30)).build(),
+                Scan.builder().token(token).scannedAt(first.plusSeconds(60)).build()), "conductor");
+
+        assertThat(results(response)).containsExactly(CheckInResult.ACCEPTED, CheckInResult.DUPLICATE, CheckInResult.DUPLICATE);
+        assertThat(response.getResults().get(2).getCheckedInAt()).isEqualTo(first);
+        assertThat(response.getAccepted()).isEqualTo(1);
+        assertThat(response.getDuplicates()).isEqualTo(2);
+        assertThat(saved).hasSize(1);
+        assertThat(saved.get(0)).hasSize(1);
+    }
+
+    @Test
+    void ticketCheckedInByAnEarlierUploadIsDuplicate() {
+        bookings(state(1L, SCHEDULE, Booking.Status.CONFIRMED));
+        Instant earlier = Instant.parse("2026-10-18T05:58:00Z");
+        when(checkInRepo.findByBookingIdIn(anyCollection())).thenReturn(List.of(checkIn(1L, earlier)));
+
+        CheckInBatchResponse response = service.checkIn(batch(
+                Scan.builder().token(codec.issue(1L, SCHEDULE, List.of("A1"))).build()), "conductor");
+
+        assertThat(results(response)).containsExactly(CheckInResult.DUPLICATE);
+        assertThat(response.getResults().get(0).getCheckedInAt()).isEqualTo(earlier);
+        assertThat(saved).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void concurrentUploadClaimingTheSameTicketIsReconciledAgain() {
+        bookings(state(1L, SCHEDULE, Booking.Status.CONFIRMED), state(2L, SCHEDULE, Booking.Status.CONFIRMED));
+        Instant otherDevice = Instant.parse("2026-10-18T06:00:30Z");
+        // Nothing checked in when we read; the other device's insert lands before ours
+        when(checkInRepo.findByBookingIdIn(anyCollection()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(checkIn(1L, otherDevice)));
+        when(checkInRepo.saveAllAndFlush(anyIterable()))
+                .thenThrow(new DataIntegrityViolationException("uk_ticket_check_ins_booking"))
+                .thenAnswer(invocation -> {
+                    List<TicketCheckIn> batch = new ArrayList<>();
+                    ((Iterable<TicketCheckIn>) invocation.getArgument(0)).forEach(batch::add);
+                    saved.add(batch);
+                    return batch;
+                });
+
+        CheckInBatchResponse response = service.checkIn(batch(
+                Scan.builder().token(codec.issue(1L, SCHEDULE, List.of("A1"))).build(),
+                Scan.builder().token(codec.issue(2L, SCHEDULE, List.of("A2"))).build()), "conductor");
+
+        assertThat(results(response)).containsExactly(CheckInResult.DUPLICATE, CheckInResult.ACCEPTED);
+        assertThat(response.getResults().get(0).getCheckedInAt()).isEqualTo(otherDevice);
+        assertThat(saved).hasSize(1);
+        assertThat(saved.get(0)).extracting(TicketCheckIn::getBookingId).containsExactly(2L);
+    }
+
+    @Test
+    void ticketForAnotherTripIsRejected() {
+        // Keyed-in booking ID: only the database knows its trip
+        bookings(state(2L, OTHER_SCHEDULE, Booking.Status.CONFIRMED));
+
+        CheckInBatchResponse response = service.checkIn(batch(
+                Scan.builder().token(codec.issue(1L, OTHER_SCHEDULE, List.of("A1"))).build(),
+                Scan.builder().bookingId(2L).build()), "conductor");
+
+        assertThat(results(response)).containsExactly(CheckInResult.WRONG_TRIP, CheckInResult.WRONG_TRIP);
+        assertThat(response.getRejected()).isEqualTo(2);
+        // The token names its trip, so it is rejected without a lookup
+        verify(bookingRepo).findStatesByIds(argThat(ids -> ids.size() == 1 && ids.contains(2L)));
+        assertThat(saved).isEmpty();
+    }
+
+    @Test
+    void ticketOfABookingThatIsNotConfirmedIsRejected() {
+        bookings(state(1L, SCHEDULE, Booking.Status.CANCELLED), state(2L, SCHEDULE, Booking.Status.REFUND_REQUIRED));
+
+        CheckInBatchResponse response = service.checkIn(batch(
+                Scan.builder().token(codec.issue(1L, SCHEDULE, List.of("A1"))).build(),
+                Scan.builder().token(codec.issue(2L, SCHEDULE, List.of("A2"))).build()), "conductor");
+
+        assertThat(results(response)).containsExactly(CheckInResult.NOT_CONFIRMED, CheckInResult.NOT_CONFIRMED);
+        assertThat(response.getResults().get(0).getError()).isEqualTo("Booking is CANCELLED");
+        assertThat(saved).isEmpty();
+    }
+
+    @Test
+    void invalidAndUnknownTicketsAreRejected() {
+        bookings();
+
+        CheckInBatchResponse response = service.checkIn(batch(
+                Scan.builder().token("BM1:NOT A TOKEN").build(),
+                Scan.builder().build(),
+                Scan.builder().bookingId(99L).build()), "conductor");
+
+        assertThat(results(response)).containsExactly(CheckInResult.INVALID, CheckInResult.INVALID, CheckInResult.UNKNOWN_BOOKING);
+        assertThat(saved).isEmpty();
+    }
+
+    @Test
+    void manifestListsBookingsWhoseSeatsCannotBeEncodedWithoutAHash() {
+        when(scheduleRepo.findById(SCHEDULE)).thenReturn(Optional.of(Schedule.builder()
+                .id(SCHEDULE).route(Route.builder().origin("Cebu City").destination("Bogo City").build()).build()));
+        // Past row 'Z' of a grid layout: no token can carry it
+        when(bookingSeatRepo.findConfirmedSeatsByScheduleId(SCHEDULE)).thenReturn(List.of(
+                seat(1L, "A1"), seat(2L, "[1"), seat(3L, "B2")));
+
+        Manifest manifest = service.getManifest(SCHEDULE);
+
+        assertThat(manifest.getTickets()).extracting(ManifestEntry::getBookingId).containsExactly(1L, 2L, 3L);
+        assertThat(manifest.getTickets().get(0).getHash())
+                .isEqualTo(TicketCodec.fingerprint(codec.issue(1L, SCHEDULE, List.of("A1"))));
+        assertThat(manifest.getTickets().get(1).getHash()).isNull();
+        assertThat(manifest.getTickets().get(1).getSeats()).containsExactly("[1");
+        assertThat(manifest.getTickets().get(2).getHash()).isNotNull();
+    }
+
+    private void bookings(BookingRepository.BookingState... states) {
+        when(bookingRepo.findStatesByIds(anyCollection())).thenReturn(Arrays.asList(states));
+    }
+
+    private static CheckInBatchRequest batch(Scan... scans) {
+        return CheckInBatchRequest.builder().scheduleId(SCHEDULE).deviceId("device-1").scans(List.of(scans)).build();
+    }
+
+    private static List<CheckInResult> results(CheckInBatchResponse response) {
+        return response.getResults().stream().map(ScanResult::getResult).toList();
+    }
+
+    private static TicketCheckIn checkIn(Long bookingId, Instant scannedAt) {
+        return TicketCheckIn.builder().bookingId(bookingId).scheduleId(SCHEDULE).scannedAt(scannedAt).build();
+    }
+
+    private static BookingSeatRepository.SeatOfBooking seat(Long bookingId, String seatNumber) {
+        return new BookingSeatRepository.SeatOfBooking() {
+            @Override
+            public Long getBookingId() {
+                return bookingId;
+            }
+
+            @Override
+            public String getSeatNumber() {
+                return seatNumber;
+            }
+        };
+    }
+
+    private static BookingRepository.BookingState state(Long id, Long scheduleId, Booking.Status status) {
+        return new State(id, scheduleId, status);
+    }
+
+    private record State(Long id, Long scheduleId, Booking.Status status) implements BookingRepository.BookingState {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getScheduleId() {
+            return scheduleId;
+        }
+
+        @Override
+        public Booking.Status getStatus() {
+            return status;
+        }
+    }
+}
@@ -56,6 +56,10 @@ export const busTypeAPI = {
 // Schedule API
 export const scheduleAPI = {
   getAll: () => api.get('/schedules'),
+  // Paginated search: { routeId, origin, destination, from, to, after, size } -> { items, nextCursor }
+  search: (params = {}) => api.get('/schedules/search', { params }),
+  // Totals over all schedules: [{ routeId, trips, minPrice, availableSeats }]
+  routeStats: () => api.get('/schedules/route-stats'),
   create: (data) => api.post('/schedules', data),
   update: (id, data) => api.put(`/schedules/${id}`, data),
   delete: (id) => api.delete(`/schedules/${id}`),
@@ -77,8 +81,17 @@ export const bookingAPI = {
   create: (data) => api.post('/bookings', data),
   confirm: (id, data) => api.post(`/bookings/${id}/confirm`, data),
   getUserBookings: (userId) => api.get(`/bookings/user/${userId}`),
+  // Paged summaries, newest first; pass the previous page's nextCursor as `after`
+  getUserBookingHistory: (userId, after, size = 20) =>
+    api.get(`/bookings/user/${userId}/history`, { params: { after, size } }),
+  getQr: (bookingId) => api.get(`/bookings/${bookingId}/qr`),
+  // imageUrl comes from getQr; the image is immutable, so the browser cache serves repeat views
+  getQrImage: (imageUrl, format = 'png', size = 256) =>
+    api.get(imageUrl.replace(/^\/api/, ''), { params: { format, size }, responseType: 'blob' }),
   // Admin / reporting
   getAll: () => api.get('/bookings'),
+  // Streamed download without QR text; format is 'ndjson' or 'csv'
+  exportAll: (format = 'csv') => api.get('/bookings/export', { params: { format }, responseType: 'blob', timeout: 0 }),
 };
 
 // Payment API
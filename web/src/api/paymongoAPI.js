@@ -10,6 +10,13 @@ export const paymongoAPI = {
   getPaymentStatus: (paymentIntentId) => 
     api.get(`/paymongo/intent/${paymentIntentId}/status`),
   
+  // Wait until the status differs from `since` (long-poll, the server answers within ~25s)
+  waitForPaymentStatus: (paymentIntentId, since) => 
+    api.get(`/paymongo/intent/${paymentIntentId}/status/wait`, {
+      params: { since, timeoutSeconds: 25 },
+      timeout: 35000,
+    }),
+  
   // Verify payment after redirect
   verifyPayment: (paymentIntentId) => 
     api.post(`/paymongo/verify-payment/${paymentIntentId}`),
@@ -20,27 +20,10 @@ function Dashboard({ onSignOut }) {
     let isMounted = true
     const fetchDashboard = async () => {
       try {
-        const [routesRes, schedulesRes] = await Promise.all([routesAPI.getAll(), scheduleAPI.getAll()])
+        const [routesRes, statsRes] = await Promise.all([routesAPI.getAll(), scheduleAPI.routeStats()])
         if (!isMounted) return
-        const schedules = schedulesRes.data ?? []
         const routes = routesRes.data ?? []
-        const routeStats = schedules.reduce((acc, schedule) => {
-          const routeId = schedule.route?.id
-          if (!routeId) return acc
-          if (!acc[routeId]) {
-            acc[routeId] = {
-              count: 0,
-              minPrice: Number.MAX_SAFE_INTEGER,
-            }
-          }
-          const entry = acc[routeId]
-          entry.count += 1
-          const price = Number(schedule.price)
-          if (!Number.isNaN(price)) {
-            entry.minPrice = Math.min(entry.minPrice, price)
-          }
-          return acc
-        }, {})
+        const routeStats = Object.fromEntries((statsRes.data ?? []).map((entry) => [entry.routeId, entry]))
 
         // Only show routes that have schedules (trips available)
         const hydratedRoutes = routes
@@ -54,15 +37,17 @@ function Dashboard({ onSignOut }) {
               distance: route.distanceKm ? `${route.distanceKm} km` : '—',
               duration: route.durationMinutes ? formatDuration(route.durationMinutes) : '—',
               price: formatCurrency(statsForRoute.minPrice),
-              extras: [`🚌 ${statsForRoute.count} trips scheduled`],
+              extras: [`🚌 ${statsForRoute.trips} trips scheduled`],
             }
           })
 
         setPopularRoutes(hydratedRoutes.slice(0, 3))
 
-        const totalSeats = schedules.reduce((sum, sched) => sum + (sched.availableSeats ?? 0), 0)
+        const totals = Object.values(routeStats)
+        const totalTrips = totals.reduce((sum, entry) => sum + entry.trips, 0)
+        const totalSeats = totals.reduce((sum, entry) => sum + (entry.availableSeats ?? 0), 0)
         setStats([
-          { value: `${schedules.length}`, label: 'Upcoming Trips' },
+          { value: `${totalTrips}`, label: 'Upcoming Trips' },
           { value: `${routes.length}`, label: 'Routes Available' },
           { value: `${totalSeats}`, label: 'Seats Live' },
         ])
@@ -161,6 +161,7 @@ const handleDelete = async (userId) => {
                     className="form-select"
                   >
                     <option value="USER">User</option>
+                    <option value="CONDUCTOR">Conductor</option>
                     <option value="ADMIN">Admin</option>
                   </select>
                 </div>
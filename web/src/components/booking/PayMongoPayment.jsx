@@ -4,7 +4,6 @@ import {
   paymongoAPI,
   createPaymentMethod,
   attachPaymentMethod,
-  getPaymentIntentClient,
   PAYMENT_METHODS,
   buildCardPaymentMethod,
   buildEWalletPaymentMethod,
@@ -215,28 +214,24 @@ const PayMongoPayment = ({
     }
   };
 
-  // Poll payment status
-  const pollPaymentStatus = async (intent, attempts = 0) => {
-    if (attempts >= 10) {
+  // Long-poll payment status through the backend, which is told of changes by PayMongo webhooks
+  const pollPaymentStatus = async (intent, attempts = 0, since = 'processing') => {
+    if (attempts >= 5) {
       setError('Payment verification timed out. Please check your bookings.');
       setStep('error');
       return;
     }
 
     try {
-      const statusResponse = await getPaymentIntentClient(
-        intent.publicKey,
-        intent.id,
-        intent.clientKey
-      );
+      const statusResponse = await paymongoAPI.waitForPaymentStatus(intent.id, since);
 
-      const status = statusResponse.data.attributes.status;
+      const status = statusResponse.data.status;
 
       if (status === 'succeeded') {
         await handlePaymentReturn(intent.id);
       } else if (status === 'awaiting_payment_method' || status === 'processing') {
-        // Wait and poll again
-        setTimeout(() => pollPaymentStatus(intent, attempts + 1), 3000);
+        // Nothing changed before the server timed out, wait again
+        pollPaymentStatus(intent, attempts + 1, status);
       } else {
         setError('Payment failed. Please try again.');
         setStep('error');
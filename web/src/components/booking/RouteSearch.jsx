@@ -8,27 +8,21 @@ const RouteSearch = ({ onScheduleSelect }) => {
   const [loading, setLoading] = useState(true);
 
   useEffect(() => {
-    loadData();
+    routesAPI.getAll()
+      .then(res => setRoutes(res.data))
+      .catch(error => console.error('Failed to load routes:', error));
   }, []);
 
-  const loadData = async () => {
-    try {
-      const [routesRes, schedulesRes] = await Promise.all([
-        routesAPI.getAll(),
-        scheduleAPI.getAll()
-      ]);
-      setRoutes(routesRes.data);
-      setSchedules(schedulesRes.data);
-    } catch (error) {
-      console.error('Failed to load data:', error);
-    } finally {
-      setLoading(false);
-    }
-  };
+  // Fetch only the upcoming schedules for the selected route
+  useEffect(() => {
+    setLoading(true);
+    scheduleAPI.search({ routeId: selectedRoute || undefined, size: 50 })
+      .then(res => setSchedules(res.data?.items ?? []))
+      .catch(error => console.error('Failed to load schedules:', error))
+      .finally(() => setLoading(false));
+  }, [selectedRoute]);
 
-  const filteredSchedules = selectedRoute
-    ? schedules.filter(s => s.route?.id === parseInt(selectedRoute))
-    : schedules;
+  const filteredSchedules = schedules;
 
   if (loading) return <div className="loading">Loading routes...</div>;
 
@@ -1,4 +1,4 @@
-import { useEffect, useMemo, useState } from 'react'
+import { useEffect, useState } from 'react'
 import { useNavigate, useSearchParams, useLocation } from 'react-router-dom'
 import BookingSection from '../components/Dashboard/BookingSection'
 import SeatSelector from '../components/booking/SeatSelector'
@@ -34,6 +34,8 @@ function BookingPage({ onSignOut }) {
   const { user } = useAuth()
   const [routes, setRoutes] = useState([])
   const [schedules, setSchedules] = useState([])
+  const [nextCursor, setNextCursor] = useState(null)
+  const [loadingMore, setLoadingMore] = useState(false)
   const [loading, setLoading] = useState(true)
   const [selectedRouteId, setSelectedRouteId] = useState(location.state?.routeId ? String(location.state.routeId) : '')
   const [travelDate, setTravelDate] = useState('')
@@ -91,16 +93,16 @@ function BookingPage({ onSignOut }) {
     let cancelled = false
     const fetchData = async () => {
       try {
-        const [routesRes, schedulesRes] = await Promise.all([routesAPI.getAll(), scheduleAPI.getAll()])
+        const routesRes = await routesAPI.getAll()
         if (cancelled) return
         setRoutes(routesRes.data ?? [])
-        setSchedules(schedulesRes.data ?? [])
         if (!selectedRouteId && routesRes.data?.length) {
           setSelectedRouteId(String(routesRes.data[0].id))
+        } else if (!routesRes.data?.length) {
+          setLoading(false)
         }
       } catch (error) {
-        console.error('Failed to load trips', error)
-      } finally {
+        console.error('Failed to load routes', error)
         if (!cancelled) setLoading(false)
       }
     }
@@ -112,22 +114,59 @@ function BookingPage({ onSignOut }) {
     // eslint-disable-next-line react-hooks/exhaustive-deps
   }, [])
 
+  // Only the trips matching the current filters are fetched, one page at a time
+  const searchParamsFor = (after) => ({
+    routeId: selectedRouteId || undefined,
+    from: travelDate || undefined,
+    to: travelDate || undefined,
+    after,
+  })
+
   const refreshSchedules = async () => {
     try {
-      const response = await scheduleAPI.getAll()
-      setSchedules(response.data ?? [])
+      const response = await scheduleAPI.search(searchParamsFor())
+      setSchedules(response.data?.items ?? [])
+      setNextCursor(response.data?.nextCursor ?? null)
     } catch (error) {
       console.error('Failed to refresh schedules', error)
     }
   }
 
-  const filteredSchedules = useMemo(() => {
-    return schedules.filter((schedule) => {
-      if (selectedRouteId && schedule.route?.id !== Number(selectedRouteId)) return false
-      if (travelDate && schedule.travelDate !== travelDate) return false
-      return true
-    })
-  }, [schedules, selectedRouteId, travelDate])
+  useEffect(() => {
+    if (!selectedRouteId) return
+    let cancelled = false
+    setLoading(true)
+    scheduleAPI.search(searchParamsFor())
+      .then((response) => {
+        if (cancelled) return
+        setSchedules(response.data?.items ?? [])
+        setNextCursor(response.data?.nextCursor ?? null)
+      })
+      .catch((error) => console.error('Failed to load trips', error))
+      .finally(() => {
+        if (!cancelled) setLoading(false)
+      })
+    return () => {
+      cancelled = true
+    }
+    // eslint-disable-next-line react-hooks/exhaustive-deps
+  }, [selectedRouteId, travelDate])
+
+  const loadMoreSchedules = async () => {
+    if (!nextCursor) return
+    setLoadingMore(true)
+    try {
+      const response = await scheduleAPI.search(searchParamsFor(nextCursor))
+      setSchedules((prev) => [...prev, ...(response.data?.items ?? [])])
+      setNextCursor(response.data?.nextCursor ?? null)
+    } catch (error) {
+      console.error('Failed to load more trips', error)
+    } finally {
+      setLoadingMore(false)
+    }
+  }
+
+  const filteredSchedules = schedules
 
   const trips = filteredSchedules.map((schedule) => {
     const arrivalTimeRaw = addMinutesToTime(schedule.departureTime, schedule.route?.durationMinutes)
@@ -275,6 +314,13 @@ function BookingPage({ onSignOut }) {
               onSelectSchedule={handleTripSelect}
               loading={loading}
             />
+            {nextCursor && (
+              <div style={{ textAlign: 'center', marginTop: '1rem' }}>
+                <button type="button" className="btn-secondary" onClick={loadMoreSchedules} disabled={loadingMore}>
+                  {loadingMore ? 'Loading…' : 'Load more trips'}
+                </button>
+              </div>
+            )}
           </>
         )}
 
@@ -13,7 +13,7 @@ const tabs = [
 ]
 
 const classifyBooking = (booking) => {
-  if (booking.status === 'CANCELLED') return 'cancelled'
+  if (booking.status === 'CANCELLED' || booking.status === 'REFUND_REQUIRED') return 'cancelled'
   const departure = mergeDateTime(booking.schedule?.travelDate, booking.schedule?.departureTime)
   if (departure && departure < new Date()) {
     return 'past'
@@ -21,9 +21,6 @@ const classifyBooking = (booking) => {
   return 'upcoming'
 }
 
-const toQrUrl = (text) =>
-  text ? `https://api.qrserver.com/v1/create-qr-code/?size=200x200&data=${encodeURIComponent(text)}` : null
-
 function MyBookingsPage({ onSignOut }) {
   const { user } = useAuth()
   const [bookings, setBookings] = useState([])
@@ -65,10 +62,22 @@ function MyBookingsPage({ onSignOut }) {
 
   const currentBookings = grouped[activeTab] ?? []
 
-  const handleViewQR = (qrCodeText) => {
-    const qrUrl = toQrUrl(qrCodeText)
-    if (qrUrl) {
-      window.open(qrUrl, '_blank')
+  const handleViewQR = async (bookingId) => {
+    // Open the tab right away so the popup is not blocked while the image loads
+    const qrWindow = window.open('', '_blank')
+    try {
+      const { data } = await bookingAPI.getQr(bookingId)
+      if (!data.imageUrl) {
+        qrWindow?.close()
+        return
+      }
+      const image = await bookingAPI.getQrImage(data.imageUrl, 'svg', 320)
+      if (qrWindow) {
+        qrWindow.location.href = URL.createObjectURL(image.data)
+      }
+    } catch (error) {
+      qrWindow?.close()
+      console.error('Failed to load QR code:', error)
     }
   }
 
@@ -157,7 +166,7 @@ function MyBookingsPage({ onSignOut }) {
                       <button 
                         type="button" 
                         className="btn-secondary" 
-                        onClick={() => handleViewQR(booking.qrCodeText)}
+                        onClick={() => handleViewQR(booking.id)}
                       >
                         View QR
                       </button>
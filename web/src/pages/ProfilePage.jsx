@@ -30,8 +30,9 @@ const ProfilePage = () => {
     const fetchBookings = async () => {
       if (!user?.id) return;
       try {
-        const res = await bookingAPI.getUserBookings(user.id);
-        setBookings(res.data);
+        // Most recent bookings only, as summaries
+        const res = await bookingAPI.getUserBookingHistory(user.id);
+        setBookings(res.data.items);
       } catch (err) {
         console.error('Failed to fetch bookings', err);
       } finally {
@@ -4,18 +4,8 @@ import BusMateLayout from '../components/layout/BusMateLayout'
 import { routesAPI, scheduleAPI } from '../api/axios'
 import { formatCurrency, formatDuration } from '../utils/formatters'
 
-const buildRouteCards = (routes = [], schedules = []) => {
-  const scheduleStats = schedules.reduce((acc, schedule) => {
-    const routeId = schedule.route?.id
-    if (!routeId) return acc
-    const entry = acc[routeId] ?? { count: 0, minPrice: Number.MAX_SAFE_INTEGER, firstSchedule: null }
-    entry.count += 1
-    const priceNum = Number(schedule.price)
-    if (!Number.isNaN(priceNum)) entry.minPrice = Math.min(entry.minPrice, priceNum)
-    if (!entry.firstSchedule) entry.firstSchedule = schedule
-    acc[routeId] = entry
-    return acc
-  }, {})
+const buildRouteCards = (routes = [], stats = []) => {
+  const scheduleStats = Object.fromEntries(stats.map((entry) => [entry.routeId, entry]))
 
   // Only return routes that have schedules (trips available)
   return routes
@@ -29,9 +19,8 @@ const buildRouteCards = (routes = [], schedules = []) => {
         distance: route.distanceKm ? `${route.distanceKm} km` : '—',
         duration: route.durationMinutes ? formatDuration(route.durationMinutes) : '—',
         price: formatCurrency(entry.minPrice),
-        extras: [`🚌 ${entry.count} trips scheduled`],
-        badge: entry.count >= 3 ? 'Popular' : undefined,
-        rawSchedule: entry.firstSchedule,
+        extras: [`🚌 ${entry.trips} trips scheduled`],
+        badge: entry.trips >= 3 ? 'Popular' : undefined,
       }
     })
 }
@@ -45,9 +34,9 @@ function RoutesPage({ onSignOut }) {
     let cancelled = false
     const fetchRoutes = async () => {
       try {
-        const [routesRes, schedulesRes] = await Promise.all([routesAPI.getAll(), scheduleAPI.getAll()])
+        const [routesRes, statsRes] = await Promise.all([routesAPI.getAll(), scheduleAPI.routeStats()])
         if (cancelled) return
-        const hydrated = buildRouteCards(routesRes.data ?? [], schedulesRes.data ?? [])
+        const hydrated = buildRouteCards(routesRes.data ?? [], statsRes.data ?? [])
         setAllRoutes(hydrated)
         // Popular routes are the first 4 with most schedules
         setPopularRoutes(hydrated.slice(0, 4))